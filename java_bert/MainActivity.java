@@ -10,11 +10,16 @@ import ai.onnxruntime.OrtException;
 import ai.onnxruntime.OrtSession;
 
 import com.example.java_bert.tokenization.BertTokenizer;
+import com.example.java_bert.tokenization.Encoding;
+import com.example.java_bert.tokenization.EntitySpan;
+import com.example.java_bert.tokenization.LogitsPostProcessor;
+import com.example.java_bert.tokenization.TokenizerLog;
 
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.FloatBuffer;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
@@ -22,11 +27,13 @@ import java.util.Map;
 public class MainActivity extends AppCompatActivity {
 
     private static final String TAG = "MainActivity";
+    private static final String[] ID2LABEL = {"O", "B-MISC", "I-MISC", "B-PER", "I-PER", "B-ORG", "I-ORG", "B-LOC", "I-LOC"};
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
+        TokenizerLog.setSink((tag, message, error) -> Log.e(tag, message, error));
 
         try {
             testTokenizer();
@@ -38,15 +45,19 @@ public class MainActivity extends AppCompatActivity {
     private void testTokenizer() throws IOException, OrtException {
         Log.d(TAG, "Starting testTokenizer...");
 
-        // Load and initialize the tokenizer
-        File vocabFile = createTempFileFromAsset("vocab.txt");
-        Log.d(TAG, "Vocab file created at: " + vocabFile.getAbsolutePath());
-        BertTokenizer bertTokenizer = new BertTokenizer(vocabFile.getAbsolutePath());
+        // Load and initialize the tokenizer straight from the asset stream; the asset may be
+        // vocab.txt or an artifact compiled with TokenizerArtifact for a faster start.
+        BertTokenizer bertTokenizer;
+        try (InputStream vocabStream = getAssets().open("vocab.txt")) {
+            bertTokenizer = new BertTokenizer(vocabStream);
+        }
+        Log.d(TAG, "Tokenizer loaded from asset vocab.txt");
 
         // Tokenize sample text
         String text = "Mister Aziz, Layards Broadway, Colombo 14";
         Log.d(TAG, "Text to tokenize: " + text);
         List<String> tokens = bertTokenizer.tokenize(text);
+        Encoding encoding = bertTokenizer.encodeWithOffsets(text);
         Log.d(TAG, "Tokens: " + tokens.toString());
 
         // Convert tokens to IDs
@@ -89,33 +100,26 @@ public class MainActivity extends AppCompatActivity {
 
         Log.d(TAG, "Running the ONNX model...");
         try (OrtSession.Result results = session.run(inputMap)) {
-            float[][][] logits = (float[][][]) results.get(0).getValue();
-            Log.d(TAG, "Logits: " + Arrays.deepToString(logits));
-
-            // Apply softmax to logits
-            float[][][] probabilities = applySoftmax(logits);
-            Log.d(TAG, "Probabilities after softmax: " + Arrays.deepToString(probabilities));
-
-            // Get predicted label IDs
-            long[][] predictedLabelIds = new long[probabilities.length][probabilities[0].length];
-            for (int i = 0; i < probabilities.length; i++) {
-                for (int j = 0; j < probabilities[i].length; j++) {
-                    predictedLabelIds[i][j] = argmax(probabilities[i][j]);
-                }
+            OnnxTensor logitsTensor = (OnnxTensor) results.get(0);
+            FloatBuffer logits = logitsTensor.getFloatBuffer();
+            int seqLength = (int) logitsTensor.getInfo().getShape()[1];
+
+            // getFloatBuffer() copies the output once, flat; argmax reads that copy directly and
+            // softmax is only computed for the winning label's score
+            LogitsPostProcessor postProcessor = new LogitsPostProcessor(ID2LABEL);
+            int[] predictedLabelIds = new int[seqLength];
+            float[] scores = new float[seqLength];
+            postProcessor.argmax(logits, seqLength, predictedLabelIds, scores);
+            Log.d(TAG, "Predicted Label IDs: " + Arrays.toString(predictedLabelIds));
+
+            // Log the tokens and their predicted labels; position 0 holds [CLS]
+            for (int i = 0; i < tokens.size(); i++) {
+                Log.d(TAG, "Token: " + tokens.get(i) + ", Predicted Label: " + ID2LABEL[predictedLabelIds[i + 1]]
+                        + " (" + scores[i + 1] + ")");
             }
-            Log.d(TAG, "Predicted Label IDs: " + Arrays.deepToString(predictedLabelIds));
 
-            // Map label IDs to labels
-            String[] id2label = {"O", "B-MISC", "I-MISC", "B-PER", "I-PER", "B-ORG", "I-ORG", "B-LOC", "I-LOC"};
-            String[] predictedLabels = new String[predictedLabelIds.length];
-            for (int i = 0; i < predictedLabelIds.length; i++) {
-                predictedLabels[i] = id2label[(int) predictedLabelIds[0][i]];
-            }
-            Log.d(TAG, "Predicted Labels: " + Arrays.toString(predictedLabels));
-
-            // Log the tokens and their predicted labels
-            for (int i = 0; i < tokens.size(); i++) {
-                Log.d(TAG, "Token: " + tokens.get(i) + ", Predicted Label: " + predictedLabels[i]);
+            for (EntitySpan entity : postProcessor.entities(logits, 0, seqLength, encoding)) {
+                Log.d(TAG, "Entity: " + entity.label() + " '" + entity.text(text) + "' score " + entity.score());
             }
         } catch (Exception e) {
             Log.e(TAG, "Error running the ONNX model: " + e.getMessage(), e);
@@ -128,46 +132,6 @@ public class MainActivity extends AppCompatActivity {
     }
 
 
-    private float[][][] applySoftmax(float[][][] logits) {
-        int batchSize = logits.length;
-        int seqLength = logits[0].length;
-        int numLabels = logits[0][0].length;
-        float[][][] softmax = new float[batchSize][seqLength][numLabels];
-
-        for (int i = 0; i < batchSize; i++) {
-            for (int j = 0; j < seqLength; j++) {
-                float[] logitsRow = logits[i][j];
-                float maxLogit = Float.NEGATIVE_INFINITY;
-                for (float logit : logitsRow) {
-                    if (logit > maxLogit) {
-                        maxLogit = logit;
-                    }
-                }
-                float sum = 0.0f;
-                for (int k = 0; k < numLabels; k++) {
-                    softmax[i][j][k] = (float) Math.exp(logitsRow[k] - maxLogit);
-                    sum += softmax[i][j][k];
-                }
-                for (int k = 0; k < numLabels; k++) {
-                    softmax[i][j][k] /= sum;
-                }
-            }
-        }
-        return softmax;
-    }
-
-    private long argmax(float[] array) {
-        int idx = 0;
-        float max = array[0];
-        for (int i = 1; i < array.length; i++) {
-            if (array[i] > max) {
-                max = array[i];
-                idx = i;
-            }
-        }
-        return idx;
-    }
-
     private File createTempFileFromAsset(String assetName) throws IOException {
         InputStream inputStream = getAssets().open(assetName);
         File tempFile = File.createTempFile(assetName, null, getCacheDir());
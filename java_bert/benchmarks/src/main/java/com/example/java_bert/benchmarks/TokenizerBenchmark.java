@@ -0,0 +1,192 @@
+package com.example.java_bert.benchmarks;
+
+import ai.onnxruntime.OnnxTensor;
+import ai.onnxruntime.OrtException;
+
+import com.example.java_bert.onnx.OnnxInputs;
+import com.example.java_bert.tokenization.BasicTokenizer;
+import com.example.java_bert.tokenization.BertTokenizer;
+import com.example.java_bert.tokenization.SequenceBuffer;
+import com.example.java_bert.tokenization.TokenizerArtifact;
+import com.example.java_bert.tokenization.WordpieceTokenizer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Throughput of each tokenization stage in texts per second, over synthetic corpora of
+// different shapes. Run main() or, after mvn package,
+//   java -jar benchmarks/target/benchmarks.jar TokenizerBenchmark -prof gc -p vocab=/path/to/vocab.txt
+// to also get the allocation rate per op. The vocab may also be a compiled artifact.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenizerBenchmark {
+    private static final int TEXTS = 256;
+    private static final int ONNX_BATCH = 32;
+
+    private static final String[] WORDS = {
+            "the", "tokenizer", "splits", "unbelievable", "running", "Colombo", "Broadway", "model",
+            "inference", "latency", "naïve", "café", "Straße", "BERT", "2024", "embedding"
+    };
+    private static final String PUNCTUATION = ".,;:!?()[]{}\"'-/@#$%&*";
+
+    @Param({"short", "long", "cjk", "punctuation"})
+    public String corpus;
+
+    @Param({"vocab.txt"})
+    public String vocab;
+
+    private BasicTokenizer basicTokenizer;
+    private WordpieceTokenizer wordpieceTokenizer;
+    private BertTokenizer bertTokenizer;
+    private List<String> texts;
+    private List<List<String>> tokens;
+
+    @Setup
+    public void setUp() throws IOException {
+        TokenizerArtifact artifact = TokenizerArtifact.load(vocab);
+        basicTokenizer = new BasicTokenizer();
+        wordpieceTokenizer = new WordpieceTokenizer(artifact.getVocab(), artifact.getTrie(), "[UNK]", 100);
+        bertTokenizer = new BertTokenizer(artifact);
+        texts = corpus(corpus, new Random(42));
+        tokens = new ArrayList<>(texts.size());
+        for (String text : texts) {
+            tokens.add(bertTokenizer.tokenize(text));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TEXTS)
+    public void basicTokenize(Blackhole bh) {
+        for (String text : texts) {
+            bh.consume(basicTokenizer.tokenize(text));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TEXTS)
+    public void wordpieceTokenize(Blackhole bh) {
+        for (String text : texts) {
+            bh.consume(wordpieceTokenizer.tokenize(text));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TEXTS)
+    public void bertTokenize(Blackhole bh) {
+        for (String text : texts) {
+            bh.consume(bertTokenizer.tokenize(text));
+        }
+    }
+
+    // Should report a gc.alloc.rate.norm of about 0 B/op under -prof gc.
+    @Benchmark
+    @OperationsPerInvocation(TEXTS)
+    public void encodeInto(Blackhole bh) {
+        SequenceBuffer buffer = SequenceBuffer.forCurrentThread();
+        for (String text : texts) {
+            bh.consume(bertTokenizer.encodeInto(text, buffer).size());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TEXTS)
+    public void convertTokensToIds(Blackhole bh) {
+        for (List<String> textTokens : tokens) {
+            bh.consume(bertTokenizer.convertTokensToIds(textTokens));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TEXTS)
+    public void tokenizeOnnxTensor(Blackhole bh) throws OrtException {
+        for (int i = 0; i < TEXTS; i += ONNX_BATCH) {
+            List<String> batch = texts.subList(i, i + ONNX_BATCH);
+            Map<String, OnnxTensor> inputs = OnnxInputs.tokenizeOnnxTensor(bertTokenizer, batch);
+            bh.consume(inputs);
+            for (OnnxTensor tensor : inputs.values()) {
+                tensor.close();
+            }
+        }
+    }
+
+    static List<String> corpus(String shape, Random random) {
+        List<String> texts = new ArrayList<>(TEXTS);
+        for (int i = 0; i < TEXTS; i++) {
+            StringBuilder sb = new StringBuilder();
+            switch (shape) {
+                case "short":
+                    appendWords(sb, random, 4 + random.nextInt(8));
+                    break;
+                case "long":
+                    appendWords(sb, random, 300 + random.nextInt(200));
+                    break;
+                case "cjk":
+                    for (int j = 0; j < 40 + random.nextInt(40); j++) {
+                        if (random.nextInt(6) == 0) {
+                            sb.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+                        } else {
+                            sb.append((char) (0x4E00 + random.nextInt(0x5000)));
+                        }
+                    }
+                    break;
+                case "punctuation":
+                    for (int j = 0; j < 30 + random.nextInt(30); j++) {
+                        sb.append(WORDS[random.nextInt(WORDS.length)]);
+                        for (int k = random.nextInt(4); k > 0; k--) {
+                            sb.append(PUNCTUATION.charAt(random.nextInt(PUNCTUATION.length())));
+                        }
+                        sb.append(random.nextInt(3) == 0 ? "" : " ");
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown corpus: " + shape);
+            }
+            texts.add(sb.toString());
+        }
+        return texts;
+    }
+
+    private static void appendWords(StringBuilder sb, Random random, int count) {
+        for (int j = 0; j < count; j++) {
+            if (j > 0) {
+                sb.append(' ');
+            }
+            sb.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(TokenizerBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,246 @@
+package com.example.java_bert.tokenization;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+// Special and user-added tokens ([CLS], [SEP], domain terms, ...) found in raw text with one
+// Aho-Corasick automaton, so matching costs the same per input char however many tokens there
+// are. Overlapping matches resolve leftmost-longest, as in Hugging Face tokenizers. The
+// automaton runs over int symbols: UTF-16 chars, or UTF-8 bytes for one built by utf8().
+//
+// Like WordpieceTrie, the goto function is flat arrays: the edges of a node are a sorted run of
+// edgeSymbols/edgeTargets starting at edgeStart[node]. fail[node] is the node of the longest
+// proper suffix of its path that is also a path, and output[node] the deepest token node on
+// the chain node, fail[node], fail[fail[node]], ...
+public class AddedTokens {
+    static final int NO_NODE = -1;
+    static final int NO_TOKEN = -1;
+
+    private static final int ROOT = 0;
+
+    private final int[] edgeStart;
+    private final int[] edgeSymbols;
+    private final int[] edgeTargets;
+    private final int[] fail;
+    private final int[] output;
+    private final int[] depth;
+    private final int[] tokenIds;
+    private final Map<Integer, String> tokensById = new HashMap<>();
+    private final String[] tokens;
+    private final int[] ids;
+    private final int maxLength;
+
+    // tokens[i] maps to ids[i]. Empty tokens are ignored and a repeated token keeps its last id.
+    public AddedTokens(String[] tokens, int[] ids) {
+        this(tokens, ids, false);
+    }
+
+    // The same tokens matched over UTF-8 bytes, by find(ByteBuffer, ...). id(CharSequence) only
+    // works for ASCII tokens on such an automaton.
+    AddedTokens utf8() {
+        return new AddedTokens(tokens, ids, true);
+    }
+
+    private AddedTokens(String[] tokens, int[] ids, boolean utf8) {
+        if (tokens.length != ids.length) {
+            throw new IllegalArgumentException("Got " + tokens.length + " tokens and " + ids.length + " ids");
+        }
+        this.tokens = tokens.clone();
+        this.ids = ids.clone();
+        int[][] patterns = new int[tokens.length][];
+        for (int i = 0; i < tokens.length; i++) {
+            String token = tokens[i];
+            if (utf8) {
+                byte[] bytes = token.getBytes(StandardCharsets.UTF_8);
+                patterns[i] = new int[bytes.length];
+                for (int k = 0; k < bytes.length; k++) {
+                    patterns[i][k] = bytes[k] & 0xFF;
+                }
+            } else {
+                patterns[i] = new int[token.length()];
+                for (int k = 0; k < token.length(); k++) {
+                    patterns[i][k] = token.charAt(k);
+                }
+            }
+            if (!token.isEmpty()) {
+                tokensById.put(ids[i], token);
+            }
+        }
+        Integer[] order = new Integer[tokens.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        // Stable, so among repeats the last one stays last and its id wins below.
+        Arrays.sort(order, Comparator.comparing(i -> patterns[i], AddedTokens::compare));
+
+        int capacity = 1;
+        for (int[] pattern : patterns) {
+            capacity += pattern.length;
+        }
+        int[] starts = new int[capacity + 1];
+        int[] symbols = new int[capacity];
+        int[] targets = new int[capacity];
+        int[] nodeIds = new int[capacity];
+        int[] fails = new int[capacity];
+        int[] depths = new int[capacity];
+        Arrays.fill(nodeIds, NO_TOKEN);
+
+        // Breadth-first over ranges of the sorted patterns sharing a prefix of length depth[node],
+        // so a node's fail target, being shallower, always has its edges in place already.
+        int[] rangeLo = new int[capacity];
+        int[] rangeHi = new int[capacity];
+        rangeHi[ROOT] = order.length;
+        int nodeCount = 1;
+        int edgeCount = 0;
+        for (int node = 0; node < nodeCount; node++) {
+            starts[node] = edgeCount;
+            int lo = rangeLo[node];
+            int hi = rangeHi[node];
+            int d = depths[node];
+            while (lo < hi && patterns[order[lo]].length == d) {
+                if (d > 0) {
+                    nodeIds[node] = ids[order[lo]];
+                }
+                lo++;
+            }
+            while (lo < hi) {
+                int c = patterns[order[lo]][d];
+                int next = lo + 1;
+                while (next < hi && patterns[order[next]][d] == c) {
+                    next++;
+                }
+                rangeLo[nodeCount] = lo;
+                rangeHi[nodeCount] = next;
+                depths[nodeCount] = d + 1;
+                fails[nodeCount] = node == ROOT ? ROOT : step(starts, symbols, targets, fails, fails[node], c);
+                symbols[edgeCount] = c;
+                targets[edgeCount] = nodeCount;
+                edgeCount++;
+                nodeCount++;
+                lo = next;
+            }
+        }
+        starts[nodeCount] = edgeCount;
+
+        this.edgeStart = Arrays.copyOf(starts, nodeCount + 1);
+        this.edgeSymbols = Arrays.copyOf(symbols, edgeCount);
+        this.edgeTargets = Arrays.copyOf(targets, edgeCount);
+        this.fail = Arrays.copyOf(fails, nodeCount);
+        this.depth = Arrays.copyOf(depths, nodeCount);
+        this.tokenIds = Arrays.copyOf(nodeIds, nodeCount);
+        this.output = new int[nodeCount];
+        int longest = 0;
+        for (int node = 0; node < nodeCount; node++) {
+            longest = Math.max(longest, depth[node]);
+            output[node] = tokenIds[node] != NO_TOKEN ? node : node == ROOT ? NO_NODE : output[fail[node]];
+        }
+        this.maxLength = longest;
+    }
+
+    public int size() {
+        return tokensById.size();
+    }
+
+    // Length of the longest token in symbols (chars, or bytes for a utf8() automaton).
+    public int maxLength() {
+        return maxLength;
+    }
+
+    // Id of text when it is exactly one of the tokens, otherwise NO_TOKEN.
+    public int id(CharSequence text) {
+        int node = ROOT;
+        for (int i = 0; i < text.length() && node != NO_NODE; i++) {
+            node = child(edgeStart, edgeSymbols, edgeTargets, node, text.charAt(i));
+        }
+        return node == NO_NODE ? NO_TOKEN : tokenIds[node];
+    }
+
+    // Token for id, or null when no token has it.
+    public String token(int id) {
+        return tokensById.get(id);
+    }
+
+    // Finds the leftmost-longest token in text[from, to). On success writes its start, end and
+    // id to match[0..2] and returns true. Scanning stops as soon as no longer or earlier match
+    // is possible, so finding every match by calling again from match[1] reads each char about
+    // once, plus at most the longest token's length per match.
+    public boolean find(CharSequence text, int from, int to, int[] match) {
+        return find(text, null, from, to, match);
+    }
+
+    // Same over utf8[from, to) for an automaton built by utf8(); positions are byte offsets.
+    boolean find(ByteBuffer utf8, int from, int to, int[] match) {
+        return find(null, utf8, from, to, match);
+    }
+
+    private boolean find(CharSequence text, ByteBuffer utf8, int from, int to, int[] match) {
+        int state = ROOT;
+        int matchStart = -1;
+        for (int i = from; i < to; ) {
+            int symbol = utf8 != null ? utf8.get(i) & 0xFF : text.charAt(i);
+            i++;
+            state = step(edgeStart, edgeSymbols, edgeTargets, fail, state, symbol);
+            if (matchStart >= 0 && i - depth[state] > matchStart) {
+                break;
+            }
+            int node = output[state];
+            if (node != NO_NODE) {
+                int start = i - depth[node];
+                if (matchStart < 0 || start <= matchStart) {
+                    matchStart = start;
+                    match[1] = i;
+                    match[2] = tokenIds[node];
+                }
+            }
+        }
+        if (matchStart < 0) {
+            return false;
+        }
+        match[0] = matchStart;
+        return true;
+    }
+
+    private static int step(int[] starts, int[] symbols, int[] targets, int[] fails, int state, int symbol) {
+        while (true) {
+            int next = child(starts, symbols, targets, state, symbol);
+            if (next != NO_NODE) {
+                return next;
+            }
+            if (state == ROOT) {
+                return ROOT;
+            }
+            state = fails[state];
+        }
+    }
+
+    private static int child(int[] starts, int[] symbols, int[] targets, int node, int symbol) {
+        int lo = starts[node];
+        int hi = starts[node + 1] - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int m = symbols[mid];
+            if (m < symbol) {
+                lo = mid + 1;
+            } else if (m > symbol) {
+                hi = mid - 1;
+            } else {
+                return targets[mid];
+            }
+        }
+        return NO_NODE;
+    }
+
+    private static int compare(int[] a, int[] b) {
+        int n = Math.min(a.length, b.length);
+        for (int i = 0; i < n; i++) {
+            if (a[i] != b[i]) {
+                return Integer.compare(a[i], b[i]);
+            }
+        }
+        return Integer.compare(a.length, b.length);
+    }
+}
@@ -0,0 +1,267 @@
+package com.example.java_bert.tokenization;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+public class BasicTokenizer implements Tokenizer {
+    private static final int GREEK_CAPITAL_SIGMA = 0x03A3;
+
+    private final boolean doLowerCase;
+    // Hash lookup over the words' chars, so the cost per word does not grow with the list.
+    private final Vocab neverSplit;
+    private final boolean tokenizeChineseChars;
+
+    public BasicTokenizer(boolean doLowerCase, List<String> neverSplit, boolean tokenizeChineseChars) {
+        this.doLowerCase = doLowerCase;
+        // Copied so later changes to the caller's list cannot race with tokenize.
+        this.neverSplit = neverSplit == null || neverSplit.isEmpty()
+                ? null
+                : new Vocab(neverSplit.toArray(new String[0]));
+        this.tokenizeChineseChars = tokenizeChineseChars;
+    }
+
+    public BasicTokenizer() {
+        this(false, null, true);  // Default constructor should use doLowerCase = false
+    }
+
+    @Override
+    public List<String> tokenize(String text) {
+        TokenSpans spans = new TokenSpans();
+        tokenize(text, spans);
+        List<String> splitTokens = new ArrayList<>(spans.count());
+        for (int i = 0; i < spans.count(); i++) {
+            splitTokens.add(spans.token(i));
+        }
+        return splitTokens;
+    }
+
+    // Cleans the text, isolates CJK chars and splits on whitespace and punctuation in a single
+    // pass over the code points, leaving the words as spans over the cleaned chars in out.
+    public void tokenize(CharSequence text, TokenSpans out) {
+        out.clear();
+        tokenize(text, 0, text.length(), out);
+    }
+
+    // Same over text[from, to), appending to what out already holds. Source offsets stay
+    // relative to the whole of text.
+    void tokenize(CharSequence text, int from, int to, TokenSpans out) {
+        tokenize(text, null, from, to, out);
+    }
+
+    // Same over the UTF-8 bytes utf8[from, to), decoded on the fly without building a String.
+    // Source offsets are byte offsets. Ill-formed bytes become U+FFFD and are dropped like any
+    // U+FFFD, so the words match those of the decoded String.
+    void tokenize(ByteBuffer utf8, int from, int to, TokenSpans out) {
+        tokenize(null, utf8, from, to, out);
+    }
+
+    private void tokenize(CharSequence text, ByteBuffer utf8, int from, int to, TokenSpans out) {
+        scan(text, utf8, from, to, to, out, false);
+        closeWord(out);
+    }
+
+    // Pull step of the lazy pipeline: pre-tokenizes text[from, to), or utf8[from, to) when text
+    // is null, only until the next word or CJK char is complete, and returns the position reached.
+    // Code points are decoded up to end, which may lie past to, so the position can overshoot to
+    // by the rest of the last one. A word still open there stays open in out for the next call
+    // (see TokenSpans.completeSpans) until closeWord.
+    int tokenizeNextWord(CharSequence text, ByteBuffer utf8, int from, int to, int end, TokenSpans out) {
+        return scan(text, utf8, from, to, end, out, true);
+    }
+
+    // Ends the word left open by tokenizeNextWord, if any.
+    void closeWord(TokenSpans out) {
+        if (out.openWordStart >= 0) {
+            endWord(out, out.openWordStart, out.openWordSpans, out.openPieceStart);
+            out.openWordStart = -1;
+            out.openPieceStart = -1;
+        }
+    }
+
+    private int scan(CharSequence text, ByteBuffer utf8, int from, int to, int end, TokenSpans out,
+                     boolean oneWord) {
+        int wordStart = out.openWordStart;
+        int wordSpans = out.openWordSpans;
+        int pieceStart = out.openPieceStart;
+        int i = from;
+        while (i < to) {
+            int start = i;
+            int cp;
+            if (utf8 != null) {
+                int decoded = Utf8.decode(utf8, i, end);
+                cp = Utf8.codePoint(decoded);
+                i += Utf8.length(decoded);
+            } else {
+                cp = text.charAt(i++);
+                if (Character.isHighSurrogate((char) cp) && i < end && Character.isLowSurrogate(text.charAt(i))) {
+                    cp = Character.toCodePoint((char) cp, text.charAt(i++));
+                }
+            }
+            byte cls = CharClass.of(cp);
+            if (cls == CharClass.CONTROL) {
+                continue;
+            }
+            boolean chinese = cls == CharClass.CJK && tokenizeChineseChars;
+            if (chinese || cls == CharClass.WHITESPACE) {
+                boolean ended = wordStart >= 0;
+                if (ended) {
+                    endWord(out, wordStart, wordSpans, pieceStart);
+                    wordStart = -1;
+                    pieceStart = -1;
+                }
+                if (chinese) {
+                    int cjkStart = out.length;
+                    out.appendCodePoint(cp, start, i);
+                    out.addSpan(cjkStart, out.length);
+                }
+                if (oneWord && (ended || chinese)) {
+                    break;
+                }
+                continue;
+            }
+            if (wordStart < 0) {
+                wordStart = out.length;
+                wordSpans = out.count;
+            }
+            int charStart = out.length;
+            out.appendCodePoint(cp, start, i);
+            if (doLowerCase) {
+                // Casing and accents are resolved per word in endWord before splitting.
+                continue;
+            }
+            if (cls == CharClass.PUNCTUATION) {
+                if (pieceStart >= 0) {
+                    out.addSpan(pieceStart, charStart);
+                    pieceStart = -1;
+                }
+                out.addSpan(charStart, out.length);
+            } else if (pieceStart < 0) {
+                pieceStart = charStart;
+            }
+        }
+        out.openWordStart = wordStart;
+        out.openWordSpans = wordSpans;
+        out.openPieceStart = pieceStart;
+        return i;
+    }
+
+    private void endWord(TokenSpans out, int wordStart, int wordSpans, int pieceStart) {
+        if (isNeverSplit(out, wordStart, out.length)) {
+            out.truncateSpans(wordSpans);
+            out.addSpan(wordStart, out.length);
+            return;
+        }
+        if (!doLowerCase) {
+            if (pieceStart >= 0) {
+                out.addSpan(pieceStart, out.length);
+            }
+            return;
+        }
+        if (!foldInPlace(out, wordStart)) {
+            foldByCodePoint(out, wordStart);
+        }
+        if (isNeverSplit(out, wordStart, out.length)) {
+            out.addSpan(wordStart, out.length);
+            return;
+        }
+        splitOnPunctuation(out, wordStart);
+    }
+
+    // Lowercases and strips the word in place when every char folds to exactly one char
+    // through the table, which leaves the source ranges as they are.
+    private static boolean foldInPlace(TokenSpans out, int wordStart) {
+        char[] chars = out.chars;
+        for (int i = wordStart; i < out.length; i++) {
+            char folded = CaseFolding.fold(chars[i]);
+            if (folded == CaseFolding.UNMAPPED || folded == CaseFolding.DROPPED) {
+                return false;
+            }
+        }
+        for (int i = wordStart; i < out.length; i++) {
+            chars[i] = CaseFolding.fold(chars[i]);
+        }
+        return true;
+    }
+
+    // Lowercased and stripped one code point at a time so every output char keeps the input
+    // range it came from. Only capital sigma depends on its context; its form is taken from
+    // lowercasing the whole word.
+    private static void foldByCodePoint(TokenSpans out, int wordStart) {
+        int n = out.moveToScratch(wordStart);
+        char[] raw = out.scratchChars();
+        String wordLowered = null;
+        int loweredPos = 0;
+        for (int i = 0; i < n; ) {
+            int cp = Character.codePointAt(raw, i, n);
+            int units = Character.charCount(cp);
+            int sourceStart = out.scratchSourceStart(i);
+            int sourceEnd = out.scratchSourceEnd(i + units - 1);
+            i += units;
+            char folded = units == 1 ? CaseFolding.fold((char) cp) : CaseFolding.UNMAPPED;
+            if (folded != CaseFolding.UNMAPPED) {
+                if (folded != CaseFolding.DROPPED) {
+                    out.append(folded, sourceStart, sourceEnd);
+                }
+                loweredPos++;
+                continue;
+            }
+            if (units == 1 && CaseFolding.isHangulSyllable((char) cp)) {
+                for (int k = 0; k < 3; k++) {
+                    char jamo = CaseFolding.hangulJamo((char) cp, k);
+                    if (jamo != 0) {
+                        out.append(jamo, sourceStart, sourceEnd);
+                    }
+                }
+                loweredPos++;
+                continue;
+            }
+            int foldedCodePoint = units == 2 ? CaseFolding.foldSupplementary(cp) : CaseFolding.UNMAPPED_CODE_POINT;
+            if (foldedCodePoint != CaseFolding.UNMAPPED_CODE_POINT) {
+                if (foldedCodePoint != CaseFolding.DROPPED_CODE_POINT) {
+                    out.appendCodePoint(foldedCodePoint, sourceStart, sourceEnd);
+                }
+                loweredPos += 2;
+                continue;
+            }
+            String lowered;
+            if (cp == GREEK_CAPITAL_SIGMA) {
+                if (wordLowered == null) {
+                    wordLowered = new String(raw, 0, n).toLowerCase(Locale.ROOT);
+                }
+                lowered = wordLowered.substring(loweredPos, loweredPos + 1);
+            } else {
+                lowered = new String(Character.toChars(cp)).toLowerCase(Locale.ROOT);
+            }
+            loweredPos += lowered.length();
+            String normalized = TokenizerUtils.runStripAccents(lowered);
+            for (int k = 0; k < normalized.length(); k++) {
+                out.append(normalized.charAt(k), sourceStart, sourceEnd);
+            }
+        }
+    }
+
+    private static void splitOnPunctuation(TokenSpans out, int wordStart) {
+        int start = wordStart;
+        for (int i = wordStart; i < out.length; ) {
+            int cp = Character.codePointAt(out.chars, i, out.length);
+            int next = i + Character.charCount(cp);
+            if (CharClass.of(cp) == CharClass.PUNCTUATION) {
+                if (start < i) {
+                    out.addSpan(start, i);
+                }
+                out.addSpan(i, next);
+                start = next;
+            }
+            i = next;
+        }
+        if (start < out.length) {
+            out.addSpan(start, out.length);
+        }
+    }
+
+    private boolean isNeverSplit(TokenSpans out, int start, int end) {
+        return neverSplit != null && neverSplit.id(out.chars, start, end) != Vocab.NO_ID;
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.java_bert.tokenization;
+
+import java.util.List;
+import java.util.Locale;
+
+// Sub-batches built by BertTokenizer.planBatches, with the permutation back to input
+// order: row r of batch b holds the text at index originalIndex(b, r). Closing the plan closes
+// every batch that has not been closed yet, so close any tensors over them first.
+public class BatchPlan implements AutoCloseable {
+    private final List<InputBatch> batches;
+    private final int[] order;
+    private final int[] batchStarts;
+    private final long tokenSlots;
+    private final long plannedSlots;
+    private final long unplannedSlots;
+
+    BatchPlan(List<InputBatch> batches, int[] order, int[] batchStarts, long tokenSlots, long plannedSlots,
+              long unplannedSlots) {
+        this.batches = batches;
+        this.order = order;
+        this.batchStarts = batchStarts;
+        this.tokenSlots = tokenSlots;
+        this.plannedSlots = plannedSlots;
+        this.unplannedSlots = unplannedSlots;
+    }
+
+    public int batchCount() {
+        return batches.size();
+    }
+
+    public InputBatch batch(int b) {
+        return batches.get(b);
+    }
+
+    // Index in the planned texts of row `row` of batch b.
+    public int originalIndex(int b, int row) {
+        return order[batchStarts[b] + row];
+    }
+
+    // permutation()[k] is the input index of the k-th row counting through the batches in order.
+    public int[] permutation() {
+        return order.clone();
+    }
+
+    // Slots holding real tokens, [CLS] and [SEP] included.
+    public long tokenSlots() {
+        return tokenSlots;
+    }
+
+    // Total rows x seqLen over all sub-batches.
+    public long plannedSlots() {
+        return plannedSlots;
+    }
+
+    // Slots a single batch padded to the longest text would have taken.
+    public long unplannedSlots() {
+        return unplannedSlots;
+    }
+
+    public long paddingSaved() {
+        return unplannedSlots - plannedSlots;
+    }
+
+    // Share of the planned slots that is padding.
+    public double paddingWasteRatio() {
+        return plannedSlots == 0 ? 0 : (double) (plannedSlots - tokenSlots) / plannedSlots;
+    }
+
+    @Override
+    public void close() {
+        for (InputBatch batch : batches) {
+            batch.close();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "BatchPlan{batches=%d, tokens=%d, slots=%d, unplanned=%d, saved=%d}",
+                batches.size(), tokenSlots, plannedSlots, unplannedSlots, paddingSaved());
+    }
+}
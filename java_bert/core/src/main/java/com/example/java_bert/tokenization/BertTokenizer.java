@@ -0,0 +1,968 @@
+package com.example.java_bert.tokenization;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class BertTokenizer implements Tokenizer {
+
+    private static final String DEFAULT_VOCAB_FILE = "vocab.txt";
+    // Held so that VocabRegistry, which only references the artifact softly, keeps it while
+    // this tokenizer lives.
+    private final TokenizerArtifact artifact;
+    private final Vocab vocab;
+    private final boolean doLowerCase;
+    private final boolean doBasicTokenize = true;
+    private final List<String> neverSplit = Collections.emptyList();
+    private final String unkToken = "[UNK]";
+    private final String sepToken = "[SEP]";
+    private final String padToken = "[PAD]";
+    private final String clsToken = "[CLS]";
+    private final String maskToken = "[MASK]";
+    private final boolean tokenizeChineseChars = true;
+    private final int maxInputCharsPerWord = 100;
+    private final BasicTokenizer basicTokenizer;
+    private final WordpieceTokenizer wordpieceTokenizer;
+    private final AddedTokens addedTokens;
+    private final AddedTokens addedTokensUtf8;
+    private final Decoder decoder;
+    private final Decoder skippingDecoder;
+    private final ThreadLocal<TokenSpans> spans = ThreadLocal.withInitial(TokenSpans::new);
+    private final TensorBufferPool tensorBuffers = new TensorBufferPool();
+    private volatile WordpieceCache wordpieceCache;
+    private volatile TokenizerMetrics metrics = TokenizerMetrics.NOOP;
+    private volatile int metricsSampleEvery = 1;
+
+    // Smallest share of a batch, in chars, worth handing to another thread.
+    private static final int MIN_BATCH_CHARS = 4096;
+    // How far ahead of the pre-tokenizer, in chars or bytes, length-bounded encodes look for
+    // added tokens at a time.
+    private static final int ADDED_TOKEN_WINDOW = 256;
+
+    // vocabFile may be a plain vocab.txt or an artifact compiled by TokenizerArtifact.
+    public BertTokenizer(String vocabFile) {
+        this(vocabFile, false);
+    }
+
+    // doLowerCase must match the vocab: true for uncased models, which also strips accents.
+    public BertTokenizer(String vocabFile, boolean doLowerCase) {
+        this(loadVocab(vocabFile), doLowerCase);
+    }
+
+    // Reads the vocab (text or compiled artifact) from a stream, e.g. an Android asset.
+    public BertTokenizer(InputStream vocabStream) {
+        this(vocabStream, false);
+    }
+
+    public BertTokenizer(InputStream vocabStream, boolean doLowerCase) {
+        this(loadVocab(vocabStream), doLowerCase);
+    }
+
+    public BertTokenizer() {
+        this(DEFAULT_VOCAB_FILE);
+    }
+
+    public BertTokenizer(TokenizerArtifact artifact) {
+        this(artifact, false);
+    }
+
+    // All vocab and tokenizer state is final and never mutated after construction, so one
+    // instance can be shared by any number of threads.
+    // VocabRegistry hands the same artifact to every tokenizer built from the same vocab.
+    public BertTokenizer(TokenizerArtifact artifact, boolean doLowerCase) {
+        this(artifact, doLowerCase, Collections.<String>emptyList());
+    }
+
+    // addedTokens, like the special tokens, are cut out of the raw text before basic tokenization
+    // wherever they occur, even inside a word, and map straight to their id without lowercasing
+    // or WordPiece. One already in the vocab keeps its id; new ones are numbered from the end of
+    // the vocab in list order.
+    public BertTokenizer(TokenizerArtifact artifact, boolean doLowerCase, List<String> addedTokens) {
+        this.doLowerCase = doLowerCase;
+        this.artifact = artifact;
+        this.vocab = artifact.getVocab();
+        this.basicTokenizer = doBasicTokenize
+                ? new BasicTokenizer(doLowerCase, neverSplit, tokenizeChineseChars)
+                : null;
+        this.wordpieceTokenizer = new WordpieceTokenizer(vocab, artifact.getTrie(), unkToken, maxInputCharsPerWord);
+        this.addedTokens = addedTokens(addedTokens);
+        this.addedTokensUtf8 = this.addedTokens.utf8();
+        this.decoder = decoder(false, true);
+        this.skippingDecoder = decoder(true, true);
+    }
+
+    private AddedTokens addedTokens(List<String> added) {
+        String[] specials = {clsToken, sepToken, padToken, maskToken, unkToken};
+        List<String> tokens = new ArrayList<>(specials.length + added.size());
+        List<Integer> ids = new ArrayList<>(specials.length + added.size());
+        Set<String> seen = new HashSet<>();
+        for (String special : specials) {
+            int id = vocab.id(special);
+            if (id != Vocab.NO_ID && seen.add(special)) {
+                tokens.add(special);
+                ids.add(id);
+            }
+        }
+        int nextId = vocab.capacity();
+        for (String token : added) {
+            if (token.isEmpty() || !seen.add(token)) {
+                continue;
+            }
+            int id = vocab.id(token);
+            tokens.add(token);
+            ids.add(id != Vocab.NO_ID ? id : nextId++);
+        }
+        int[] idArray = new int[ids.size()];
+        for (int i = 0; i < idArray.length; i++) {
+            idArray[i] = ids.get(i);
+        }
+        return new AddedTokens(tokens.toArray(new String[0]), idArray);
+    }
+
+    private static TokenizerArtifact loadVocab(String vocabFileName) {
+        try {
+            return TokenizerArtifact.load(vocabFileName);
+        } catch (IOException e) {
+            TokenizerLog.e("BertTokenizer", "Unable to load vocab due to: ", e);
+            throw new UncheckedIOException("Unable to load vocab from " + vocabFileName, e);
+        }
+    }
+
+    private static TokenizerArtifact loadVocab(InputStream vocabStream) {
+        if (vocabStream == null) {
+            throw new IllegalArgumentException("vocabStream is null");
+        }
+        try {
+            return TokenizerArtifact.load(vocabStream);
+        } catch (IOException e) {
+            TokenizerLog.e("BertTokenizer", "Unable to load vocab due to: ", e);
+            throw new UncheckedIOException("Unable to load vocab from stream", e);
+        }
+    }
+
+    // Caches word -> ids in front of WordPiece for every encode path; null switches it off.
+    // The cache must only be shared between tokenizers using the same vocab and casing.
+    public void setWordpieceCache(WordpieceCache cache) {
+        this.wordpieceCache = cache;
+    }
+
+    public WordpieceCache getWordpieceCache() {
+        return wordpieceCache;
+    }
+
+    public void setMetrics(TokenizerMetrics metrics) {
+        setMetrics(metrics, 1);
+    }
+
+    // Reports stage timings and counts to metrics for roughly one call in sampleEvery; null
+    // switches reporting off. Unsampled calls cost one volatile read.
+    public void setMetrics(TokenizerMetrics metrics, int sampleEvery) {
+        if (sampleEvery < 1) {
+            throw new IllegalArgumentException("sampleEvery must be positive: " + sampleEvery);
+        }
+        this.metricsSampleEvery = sampleEvery;
+        this.metrics = metrics != null ? metrics : TokenizerMetrics.NOOP;
+    }
+
+    // The metrics to report this call to, or null when it is not sampled.
+    private TokenizerMetrics sampledMetrics() {
+        TokenizerMetrics current = metrics;
+        if (current == TokenizerMetrics.NOOP) {
+            return null;
+        }
+        int every = metricsSampleEvery;
+        return every == 1 || ThreadLocalRandom.current().nextInt(every) == 0 ? current : null;
+    }
+
+    @Override
+    public List<String> tokenize(String text) {
+        if (!doBasicTokenize) {
+            return new ArrayList<>(wordpieceTokenizer.tokenize(text));
+        }
+        TokenSpans words = spans.get();
+        int count = encodeContent(text, words);
+        int[] ids = words.idScratch(count);
+        TokenizerMetrics sampled = sampledMetrics();
+        long start = sampled != null ? System.nanoTime() : 0;
+        List<String> splitTokens = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            splitTokens.add(tokenText(ids[i]));
+        }
+        if (sampled != null) {
+            sampled.recordStage(TokenizerMetrics.Stage.ID_LOOKUP, System.nanoTime() - start);
+        }
+        return splitTokens;
+    }
+
+
+    public long[][] encodeBatch(List<String> texts) {
+        return encodeBatch(texts, ForkJoinPool.commonPool());
+    }
+
+    // Encodes every text to [CLS] ids [SEP] in parallel on the given executor (a ForkJoinPool,
+    // a virtual-thread executor, ...). Texts are split into contiguous runs of roughly equal
+    // char count rather than equal item count; row i of the result always belongs to texts[i].
+    public long[][] encodeBatch(List<String> texts, Executor executor) {
+        long[][] result = new long[texts.size()][];
+        long totalChars = 0;
+        for (String text : texts) {
+            totalChars += text.length();
+        }
+        int parallelism = executor instanceof ForkJoinPool
+                ? ((ForkJoinPool) executor).getParallelism()
+                : Runtime.getRuntime().availableProcessors();
+        long chunkChars = Math.max(MIN_BATCH_CHARS, totalChars / (parallelism * 4L));
+
+        List<CompletableFuture<Void>> chunks = new ArrayList<>();
+        int from = 0;
+        long chars = 0;
+        for (int i = 0; i < texts.size(); i++) {
+            chars += texts.get(i).length();
+            if (chars >= chunkChars || i == texts.size() - 1) {
+                int start = from;
+                int end = i + 1;
+                chunks.add(CompletableFuture.runAsync(() -> encodeRange(texts, start, end, result), executor));
+                from = end;
+                chars = 0;
+            }
+        }
+        try {
+            CompletableFuture.allOf(chunks.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+        return result;
+    }
+
+    private void encodeRange(List<String> texts, int from, int to, long[][] result) {
+        TokenSpans words = spans.get();
+        for (int i = from; i < to; i++) {
+            result[i] = encodeIds(texts.get(i), words);
+        }
+    }
+
+    private long[] encodeIds(String text, TokenSpans words) {
+        return toRow(encodeContent(text, words), words);
+    }
+
+    // [CLS] ids [SEP] of the UTF-8 text utf8[offset, offset + length): the same ids encodeBatch
+    // gives for the decoded String, without decoding it.
+    public long[] encodeUtf8(byte[] utf8, int offset, int length) {
+        return encodeUtf8(ByteBuffer.wrap(utf8, offset, length));
+    }
+
+    // Same for the bytes from utf8's position to its limit, which are left unchanged. Works on
+    // heap, direct and memory-mapped buffers alike.
+    public long[] encodeUtf8(ByteBuffer utf8) {
+        TokenSpans words = spans.get();
+        return toRow(encodeContentUtf8(utf8, words), words);
+    }
+
+    // Same, writing [CLS] ids [SEP] into out from outPos instead of a new array, and returning how
+    // many were written. When out is too short nothing is written and minus the number of slots
+    // needed is returned; utf8.remaining() + 2 slots nearly always suffice.
+    public int encodeUtf8(ByteBuffer utf8, int[] out, int outPos) {
+        TokenSpans words = spans.get();
+        int count = encodeContentUtf8(utf8, words);
+        if (outPos + count + 2 > out.length) {
+            return -(count + 2);
+        }
+        out[outPos] = vocab.id(clsToken);
+        System.arraycopy(words.idScratch(0), 0, out, outPos + 1, count);
+        out[outPos + count + 1] = vocab.id(sepToken);
+        return count + 2;
+    }
+
+    // [CLS] ids [SEP] of text with at most maxLen ids in all, computed lazily: basic tokenization
+    // and WordPiece are pulled one word at a time and stop as soon as maxLen - 2 ids are known to
+    // be followed by another, so the rest of a long text is never cleaned, split or looked up.
+    // The ids are those of encodeBatch cut to maxLen - 2 plus [SEP]; the result also tells
+    // whether any were dropped and where in text the kept ones end.
+    public BoundedEncoding encode(CharSequence text, int maxLen) {
+        return encodeBounded(text, null, 0, text.length(), maxLen);
+    }
+
+    // Same for the UTF-8 bytes from utf8's position to its limit; stopOffset is a byte index into
+    // utf8.
+    public BoundedEncoding encodeUtf8(ByteBuffer utf8, int maxLen) {
+        return encodeBounded(null, utf8, utf8.position(), utf8.limit(), maxLen);
+    }
+
+    private BoundedEncoding encodeBounded(CharSequence text, ByteBuffer utf8, int from, int to, int maxLen) {
+        checkBounded(maxLen);
+        TokenSpans words = spans.get();
+        int count = encodeWordsBounded(text, utf8, from, to, maxLen - 2, words);
+        return new BoundedEncoding(toRow(count, words), words.truncated, words.stopOffset);
+    }
+
+    private void checkBounded(int maxLen) {
+        if (!doBasicTokenize) {
+            throw new UnsupportedOperationException("Stopping early needs basic tokenization");
+        }
+        if (maxLen < 2) {
+            throw new IllegalArgumentException("maxLen must leave room for [CLS] and [SEP]: " + maxLen);
+        }
+    }
+
+    // Encodes text as [CLS] ids [SEP] into out, replacing what it held, and returns out. Once out
+    // and this thread's scratch space have grown to fit the text nothing is allocated, except by a
+    // word cache storing a new word. SequenceBuffer.forCurrentThread() is a ready per-thread buffer.
+    public SequenceBuffer encodeInto(CharSequence text, SequenceBuffer out) {
+        return encodeInto(text, Integer.MAX_VALUE, out);
+    }
+
+    // Same with at most maxLen ids, stopping early like encode(text, maxLen).
+    public SequenceBuffer encodeInto(CharSequence text, int maxLen, SequenceBuffer out) {
+        checkBounded(maxLen);
+        TokenSpans words = spans.get();
+        int count = encodeWordsBounded(text, null, 0, text.length(), maxLen - 2, words);
+        out.clear();
+        out.ensureCapacity(count + 2);
+        out.append(vocab.id(clsToken), 0);
+        out.append(words.idScratch(0), words.wordScratch(0), 0, count, 0);
+        out.append(vocab.id(sepToken), 0);
+        out.truncated = words.truncated;
+        out.stopOffset = words.stopOffset;
+        return out;
+    }
+
+    // [CLS] first [SEP] second [SEP] into out, with token type 0 up to the first [SEP] and 1
+    // after it. Word indices restart at 0 in second. Nothing is truncated; encodePair does that.
+    public SequenceBuffer encodeInto(CharSequence first, CharSequence second, SequenceBuffer out) {
+        checkBounded(Integer.MAX_VALUE);
+        TokenSpans words = spans.get();
+        out.clear();
+        int count = encodeWordsBounded(first, null, 0, first.length(), Integer.MAX_VALUE, words);
+        out.ensureCapacity(count + 2);
+        out.append(vocab.id(clsToken), 0);
+        out.append(words.idScratch(0), words.wordScratch(0), 0, count, 0);
+        out.append(vocab.id(sepToken), 0);
+        count = encodeWordsBounded(second, null, 0, second.length(), Integer.MAX_VALUE, words);
+        out.ensureCapacity(out.size() + count + 1);
+        out.append(words.idScratch(0), words.wordScratch(0), 0, count, 1);
+        out.append(vocab.id(sepToken), 1);
+        out.stopOffset = second.length();
+        return out;
+    }
+
+    // encodeWithOffsets for UTF-8 input; the offsets are byte indices into utf8.
+    public Encoding encodeUtf8WithOffsets(ByteBuffer utf8) {
+        if (!doBasicTokenize) {
+            throw new UnsupportedOperationException("Offsets need basic tokenization");
+        }
+        TokenSpans words = spans.get();
+        preTokenize(null, utf8, utf8.position(), utf8.limit(), words);
+        return toEncoding(words);
+    }
+
+    private long[] toRow(int count, TokenSpans words) {
+        int[] ids = words.idScratch(count);
+        long[] row = new long[count + 2];
+        row[0] = vocab.id(clsToken);
+        for (int i = 0; i < count; i++) {
+            row[i + 1] = ids[i];
+        }
+        row[count + 1] = vocab.id(sepToken);
+        return row;
+    }
+
+    // Leaves the ids of text, without [CLS] and [SEP], in words.idScratch and returns their count.
+    private int encodeContent(CharSequence text, TokenSpans words) {
+        if (doBasicTokenize) {
+            return encodeWords(text, null, 0, text.length(), words);
+        }
+        return encodeWithoutBasic(text, words);
+    }
+
+    private int encodeContentUtf8(ByteBuffer utf8, TokenSpans words) {
+        if (doBasicTokenize) {
+            return encodeWords(null, utf8, utf8.position(), utf8.limit(), words);
+        }
+        return encodeWithoutBasic(StandardCharsets.UTF_8.decode(utf8.duplicate()), words);
+    }
+
+    // Pre-tokenizes text[from, to), or utf8[from, to) when text is null, and runs WordPiece over
+    // the words.
+    private int encodeWords(CharSequence text, ByteBuffer utf8, int from, int to, TokenSpans words) {
+        TokenizerMetrics sampled = sampledMetrics();
+        if (sampled == null) {
+            preTokenize(text, utf8, from, to, words);
+            return wordpieceTokenizer.tokenizeToIds(words, words.idScratch(words.length()), 0, wordpieceCache);
+        }
+        long start = System.nanoTime();
+        preTokenize(text, utf8, from, to, words);
+        long split = System.nanoTime();
+        int count = wordpieceTokenizer.tokenizeToIds(words, words.idScratch(words.length()), 0, wordpieceCache);
+        sampled.recordStage(TokenizerMetrics.Stage.PRE_TOKENIZE, split - start);
+        sampled.recordStage(TokenizerMetrics.Stage.WORDPIECE, System.nanoTime() - split);
+        sampled.recordText(to - from, count, words.unknownWords, words.overlongWords, words.cacheHits,
+                words.cacheLookups);
+        return count;
+    }
+
+    // Like encodeContent, but leaves at most maxTokens ids.
+    private int encodeContentBounded(CharSequence text, int maxTokens, TokenSpans words) {
+        if (doBasicTokenize) {
+            return encodeWordsBounded(text, null, 0, text.length(), maxTokens, words);
+        }
+        return Math.min(encodeWithoutBasic(text, words), maxTokens);
+    }
+
+    // Length-bounded encodeWords. Words are pulled from the pre-tokenizer one at a time and run
+    // through WordPiece as soon as they are complete, until more than maxTokens ids are known or
+    // the input ends. Leaves at most maxTokens ids in words.idScratch and the span of each in
+    // words.wordScratch, returns their count and sets words.truncated and words.stopOffset.
+    private int encodeWordsBounded(CharSequence text, ByteBuffer utf8, int from, int to, int maxTokens,
+                                   TokenSpans words) {
+        TokenizerMetrics sampled = sampledMetrics();
+        long startNanos = sampled != null ? System.nanoTime() : 0;
+        long wordpieceNanos = 0;
+        words.clear();
+        words.unknownWords = 0;
+        words.overlongWords = 0;
+        words.cacheHits = 0;
+        words.cacheLookups = 0;
+        words.truncated = false;
+        words.stopOffset = to;
+        AddedTokens matcher = utf8 != null ? addedTokensUtf8 : addedTokens;
+        WordpieceCache cache = wordpieceCache;
+        int[] match = words.match;
+        int pos = from;
+        int limit = nextAddedToken(matcher, text, utf8, pos, to, match);
+        int count = 0;
+        int done = 0;
+        boolean finished = false;
+        while (!finished) {
+            if (pos < limit) {
+                // A code point may not run into an added token, but may run past a look-ahead limit.
+                int decodeEnd = match[2] != AddedTokens.NO_TOKEN ? limit : to;
+                pos = basicTokenizer.tokenizeNextWord(text, utf8, pos, limit, decodeEnd, words);
+            } else if (match[2] != AddedTokens.NO_TOKEN) {
+                basicTokenizer.closeWord(words);
+                addAddedToken(text, utf8, match, words);
+                pos = match[1];
+                limit = nextAddedToken(matcher, text, utf8, pos, to, match);
+            } else if (limit < to) {
+                limit = nextAddedToken(matcher, text, utf8, pos, to, match);
+                continue;
+            } else {
+                basicTokenizer.closeWord(words);
+                finished = true;
+            }
+            int complete = words.completeSpans();
+            long wordpieceStart = sampled != null ? System.nanoTime() : 0;
+            for (; done < complete; done++) {
+                int room = count + words.end(done) - words.start(done);
+                int[] ids = words.idScratch(room);
+                int n = wordpieceTokenizer.tokenizeToIds(words, done, done + 1, ids, count, cache, null, null);
+                Arrays.fill(words.wordScratch(room), count, count + n, done);
+                if (count + n > maxTokens) {
+                    int kept = maxTokens - count;
+                    words.truncated = true;
+                    if (kept > 0) {
+                        int end = wordpieceTokenizer.piecesEnd(words, done, ids, count, kept);
+                        words.stopOffset = words.sourceEnd(end - 1);
+                    } else {
+                        words.stopOffset = done > 0 ? words.sourceEnd(words.end(done - 1) - 1) : from;
+                    }
+                    count = maxTokens;
+                    finished = true;
+                    break;
+                }
+                count += n;
+            }
+            if (sampled != null) {
+                wordpieceNanos += System.nanoTime() - wordpieceStart;
+            }
+        }
+        if (sampled != null) {
+            long total = System.nanoTime() - startNanos;
+            sampled.recordStage(TokenizerMetrics.Stage.PRE_TOKENIZE, total - wordpieceNanos);
+            sampled.recordStage(TokenizerMetrics.Stage.WORDPIECE, wordpieceNanos);
+            sampled.recordText(pos - from, count, words.unknownWords, words.overlongWords, words.cacheHits,
+                    words.cacheLookups);
+        }
+        return count;
+    }
+
+    // Looks for the next added token from pos a window at a time, so a long text without any is
+    // not scanned to its end up front. Returns how far basic tokenization may run: the start of
+    // the token, which is left in match, or else a point before which none can start, with
+    // match[2] set to NO_TOKEN.
+    private static int nextAddedToken(AddedTokens matcher, CharSequence text, ByteBuffer utf8, int pos, int to,
+                                      int[] match) {
+        int longest = matcher.maxLength();
+        match[2] = AddedTokens.NO_TOKEN;
+        if (longest == 0) {
+            return to;
+        }
+        int end = (int) Math.min(to, (long) pos + Math.max(ADDED_TOKEN_WINDOW, 2 * longest));
+        while (true) {
+            boolean found = utf8 != null ? matcher.find(utf8, pos, end, match) : matcher.find(text, pos, end, match);
+            if (!found) {
+                match[2] = AddedTokens.NO_TOKEN;
+                // Any token starting before end - longest + 1 would have been found whole.
+                return end == to ? to : end - longest + 1;
+            }
+            if (end == to || match[0] + longest <= end) {
+                return match[0];
+            }
+            // A longer token, or one starting earlier, might still cross end.
+            end = (int) Math.min(to, (long) match[0] + longest);
+        }
+    }
+
+    private int encodeWithoutBasic(CharSequence text, TokenSpans words) {
+        List<String> tokens = wordpieceTokenizer.tokenize(text.toString());
+        int[] ids = words.idScratch(tokens.size());
+        int count = 0;
+        for (String token : tokens) {
+            ids[count++] = tokenId(token);
+        }
+        return count;
+    }
+
+    // Added tokens become single spans with a fixed id; the text between them goes through basic
+    // tokenization. Reads utf8 instead when text is null.
+    private void preTokenize(CharSequence text, ByteBuffer utf8, int from, int to, TokenSpans words) {
+        words.clear();
+        int[] match = words.match;
+        int pos = from;
+        while (utf8 != null ? addedTokensUtf8.find(utf8, pos, to, match) : addedTokens.find(text, pos, to, match)) {
+            if (utf8 != null) {
+                basicTokenizer.tokenize(utf8, pos, match[0], words);
+            } else {
+                basicTokenizer.tokenize(text, pos, match[0], words);
+            }
+            addAddedToken(text, utf8, match, words);
+            pos = match[1];
+        }
+        if (utf8 != null) {
+            basicTokenizer.tokenize(utf8, pos, to, words);
+        } else {
+            basicTokenizer.tokenize(text, pos, to, words);
+        }
+    }
+
+    // Appends the added token found at match as one span with its fixed id.
+    private void addAddedToken(CharSequence text, ByteBuffer utf8, int[] match, TokenSpans words) {
+        int start = words.length;
+        if (utf8 != null) {
+            String token = addedTokens.token(match[2]);
+            for (int i = 0; i < token.length(); i++) {
+                words.append(token.charAt(i), match[0], match[1]);
+            }
+        } else {
+            for (int i = match[0]; i < match[1]; i++) {
+                words.append(text.charAt(i), i, i + 1);
+            }
+        }
+        words.addSpan(start, words.length, match[2]);
+    }
+
+    // Ids of text, without [CLS] and [SEP], together with the [start, end) range of text that
+    // each one was produced from. Offsets survive removed control chars and accent stripping.
+    public Encoding encodeWithOffsets(String text) {
+        if (!doBasicTokenize) {
+            throw new UnsupportedOperationException("Offsets need basic tokenization");
+        }
+        TokenSpans words = spans.get();
+        preTokenize(text, null, 0, text.length(), words);
+        return toEncoding(words);
+    }
+
+    private Encoding toEncoding(TokenSpans words) {
+        int[] ids = new int[words.length()];
+        int[] starts = new int[words.length()];
+        int[] ends = new int[words.length()];
+        int count = wordpieceTokenizer.tokenizeToIds(words, ids, 0, wordpieceCache, starts, ends);
+        return new Encoding(vocab, addedTokens, unkToken, Arrays.copyOf(ids, count), Arrays.copyOf(starts, count),
+                Arrays.copyOf(ends, count));
+    }
+
+    public EncodingBuffer encodePair(String first, String second, int maxLength, TruncationStrategy strategy,
+                                     EncodingBuffer out) {
+        return encodePairs(Collections.singletonList(first), Collections.singletonList(second), maxLength, strategy,
+                out);
+    }
+
+    // Encodes row i as [CLS] firsts[i] [SEP] seconds[i] [SEP] with token type 0 up to the first
+    // [SEP] and 1 after it. Pairs over maxLength are truncated by strategy. All lengths are
+    // settled before anything is written; rows are padded to the longest one. Returns out.
+    // Each side is encoded only up to maxLength - 2 ids, which is all keepFirst looks at.
+    public EncodingBuffer encodePairs(List<String> firsts, List<String> seconds, int maxLength,
+                                      TruncationStrategy strategy, EncodingBuffer out) {
+        if (firsts.size() != seconds.size()) {
+            throw new IllegalArgumentException(
+                    "Got " + firsts.size() + " first and " + seconds.size() + " second sequences");
+        }
+        if (maxLength < 3) {
+            throw new IllegalArgumentException("maxLength must leave room for [CLS] and two [SEP]: " + maxLength);
+        }
+        TokenSpans words = spans.get();
+        int rows = firsts.size();
+        int budget = maxLength - 3;
+        out.prepareRows(rows);
+        int pos = 0;
+        int longest = 0;
+        for (int row = 0; row < rows; row++) {
+            int first = encodeContentBounded(firsts.get(row), budget + 1, words);
+            out.ensureIds(pos + first);
+            System.arraycopy(words.idScratch(0), 0, out.ids, pos, first);
+            pos += first;
+            int second = encodeContentBounded(seconds.get(row), budget + 1, words);
+            out.ensureIds(pos + second);
+            System.arraycopy(words.idScratch(0), 0, out.ids, pos, second);
+            pos += second;
+            out.firstLengths[row] = first;
+            out.secondLengths[row] = second;
+            int keptFirst = strategy.keepFirst(first, second, budget);
+            longest = Math.max(longest, keptFirst + Math.min(second, budget - keptFirst) + 3);
+        }
+
+        out.reset(rows, longest);
+        long[] inputIds = out.inputIds();
+        long[] typeIds = out.tokenTypeIds();
+        long[] mask = out.attentionMask();
+        long cls = vocab.id(clsToken);
+        long sep = vocab.id(sepToken);
+        int from = 0;
+        for (int row = 0; row < rows; row++) {
+            int first = out.firstLengths[row];
+            int second = out.secondLengths[row];
+            int keptFirst = strategy.keepFirst(first, second, budget);
+            int keptSecond = Math.min(second, budget - keptFirst);
+            int col = row * longest;
+            inputIds[col++] = cls;
+            for (int i = 0; i < keptFirst; i++) {
+                inputIds[col++] = out.ids[from + i];
+            }
+            inputIds[col++] = sep;
+            int secondStart = col;
+            for (int i = 0; i < keptSecond; i++) {
+                inputIds[col++] = out.ids[from + first + i];
+            }
+            inputIds[col++] = sep;
+            int rowStart = row * longest;
+            int rowEnd = rowStart + longest;
+            Arrays.fill(inputIds, col, rowEnd, 0);
+            Arrays.fill(typeIds, rowStart, secondStart, 0);
+            Arrays.fill(typeIds, secondStart, col, 1);
+            Arrays.fill(typeIds, col, rowEnd, 0);
+            Arrays.fill(mask, rowStart, col, 1);
+            Arrays.fill(mask, col, rowEnd, 0);
+            out.setLength(row, col - rowStart);
+            from += first + second;
+        }
+        return out;
+    }
+
+    // Windows of at most maxLen ids ([CLS] and [SEP] included) over a document of any size, with
+    // stride tokens shared between consecutive windows.
+    public StreamingEncoder encodeStream(Reader reader, int maxLen, int stride) {
+        return new StreamingEncoder(this, addedTokens, reader, maxLen, stride, vocab.id(clsToken),
+                vocab.id(sepToken));
+    }
+
+    public StreamingEncoder encodeStream(CharSequence text, int maxLen, int stride) {
+        return encodeStream(new StringReader(text.toString()), maxLen, stride);
+    }
+
+    int encodeChunk(CharSequence text, TokenSpans words) {
+        return encodeContent(text, words);
+    }
+
+    // Continuation pieces are joined to the token before them: "play ##ing" -> "playing".
+    public String convertTokensToString(List<String> tokens) {
+        StringBuilder sb = new StringBuilder();
+        for (String token : tokens) {
+            if (token.length() > 2 && token.startsWith("##")) {
+                sb.append(token, 2, token.length());
+            } else {
+                if (sb.length() > 0) {
+                    sb.append(' ');
+                }
+                sb.append(token);
+            }
+        }
+        return sb.toString();
+    }
+
+    // Text of ids with special tokens kept and punctuation spacing cleaned up.
+    public String decode(long[] ids) {
+        return decoder.decode(ids);
+    }
+
+    public String decode(long[] ids, boolean skipSpecialTokens) {
+        return (skipSpecialTokens ? skippingDecoder : decoder).decode(ids);
+    }
+
+    public String decode(int[] ids, boolean skipSpecialTokens) {
+        return (skipSpecialTokens ? skippingDecoder : decoder).decode(ids);
+    }
+
+    // For decoding into reused builders or incrementally via Decoder.stream.
+    public Decoder decoder(boolean skipSpecialTokens, boolean cleanUpSpaces) {
+        int[] specialIds = {vocab.id(clsToken), vocab.id(sepToken), vocab.id(padToken), vocab.id(maskToken),
+                vocab.id(unkToken)};
+        return new Decoder(vocab, addedTokens, vocab.id(unkToken), specialIds, skipSpecialTokens, cleanUpSpaces);
+    }
+
+    public long[][] convertTokensToIds(List<String> tokens) {
+        TokenizerMetrics sampled = sampledMetrics();
+        long start = sampled != null ? System.nanoTime() : 0;
+        long[][] result = new long[1][tokens.size() + 2];
+        int i = 1;
+        result[0][0] = vocab.id(clsToken);
+        for (String s : tokens) {
+            result[0][i++] = tokenId(s);
+        }
+        result[0][i] = vocab.id(sepToken);
+        if (sampled != null) {
+            sampled.recordStage(TokenizerMetrics.Stage.ID_LOOKUP, System.nanoTime() - start);
+        }
+        return result;
+    }
+
+    // Tokens missing from the vocab and the added tokens map to the [UNK] id.
+    private int tokenId(String token) {
+        int id = vocab.id(token);
+        if (id == Vocab.NO_ID) {
+            id = addedTokens.id(token);
+        }
+        return id == Vocab.NO_ID ? vocab.id(unkToken) : id;
+    }
+
+    private String tokenText(int id) {
+        String token = vocab.token(id);
+        if (token == null) {
+            token = addedTokens.token(id);
+        }
+        return token != null ? token : unkToken;
+    }
+
+    // Builds input_ids, token_type_ids and attention_mask of shape [texts.size(), seqLen] directly in
+    // pooled direct buffers. Rows longer than maxLength keep [CLS], their first maxLength - 2 ids and
+    // [SEP]. seqLen is the longest row rounded up to a multiple of padToMultipleOf, capped at maxLength.
+    // Close the returned batch once the model has run to recycle the buffers; OnnxInputs wraps it
+    // as tensors.
+    public InputBatch encodeInputBatch(List<String> texts, int maxLength, int padToMultipleOf) {
+        checkBatchArgs(maxLength, padToMultipleOf);
+        int[] rowStarts = new int[texts.size() + 1];
+        int[] ids = encodeRows(texts, maxLength, rowStarts);
+        return buildInputBatch(ids, rowStarts, null, 0, texts.size(), maxLength, padToMultipleOf);
+    }
+
+    // Like encodeInputBatch, but splits texts into sub-batches of similar length instead of
+    // padding every row to the longest text. Texts are tokenized once and ordered by length, and
+    // the order is cut into runs of at most maxBatchSize rows whose padded size, rows x seqLen,
+    // stays within maxTokensPerBatch (a row that alone exceeds it gets a batch of its own). The
+    // plan maps every row back to its index in texts and reports the padding saved.
+    public BatchPlan planBatches(List<String> texts, int maxLength, int padToMultipleOf, int maxBatchSize,
+                                 int maxTokensPerBatch) {
+        checkBatchArgs(maxLength, padToMultipleOf);
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be positive: " + maxBatchSize);
+        }
+        int count = texts.size();
+        int[] rowStarts = new int[count + 1];
+        int[] ids = encodeRows(texts, maxLength, rowStarts);
+
+        // Counting sort by length, stable so equal lengths keep their input order.
+        int[] byLength = new int[maxLength + 2];
+        int longest = 0;
+        for (int row = 0; row < count; row++) {
+            int length = rowStarts[row + 1] - rowStarts[row] + 2;
+            byLength[length + 1]++;
+            longest = Math.max(longest, length);
+        }
+        for (int length = 1; length < byLength.length; length++) {
+            byLength[length] += byLength[length - 1];
+        }
+        int[] order = new int[count];
+        for (int row = 0; row < count; row++) {
+            order[byLength[rowStarts[row + 1] - rowStarts[row] + 2]++] = row;
+        }
+
+        List<InputBatch> batches = new ArrayList<>();
+        List<Integer> batchStarts = new ArrayList<>();
+        long tokenSlots = rowStarts[count] + 2L * count;
+        long plannedSlots = 0;
+        try {
+            int from = 0;
+            while (from < count) {
+                int to = from + 1;
+                while (to < count && to - from < maxBatchSize) {
+                    int row = order[to];
+                    int seqLen = paddedLength(rowStarts[row + 1] - rowStarts[row] + 2, maxLength, padToMultipleOf);
+                    if ((long) (to - from + 1) * seqLen > maxTokensPerBatch) {
+                        break;
+                    }
+                    to++;
+                }
+                InputBatch batch = buildInputBatch(ids, rowStarts, order, from, to, maxLength, padToMultipleOf);
+                batches.add(batch);
+                batchStarts.add(from);
+                plannedSlots += (long) batch.batchSize() * batch.sequenceLength();
+                from = to;
+            }
+        } catch (RuntimeException e) {
+            for (InputBatch batch : batches) {
+                batch.close();
+            }
+            throw e;
+        }
+        long unplannedSlots = (long) count * paddedLength(longest, maxLength, padToMultipleOf);
+        int[] starts = new int[batchStarts.size() + 1];
+        for (int b = 0; b < batchStarts.size(); b++) {
+            starts[b] = batchStarts.get(b);
+        }
+        starts[batchStarts.size()] = count;
+        return new BatchPlan(batches, order, starts, tokenSlots, plannedSlots, unplannedSlots);
+    }
+
+    // The inputs encodeInputBatch builds, as heap arrays, for callers that create the tensors later
+    // or on another thread.
+    public TokenizedBatch encodePadded(List<String> texts, int maxLength, int padToMultipleOf) {
+        return encodePadded(texts, maxLength, padToMultipleOf, 0);
+    }
+
+    TokenizedBatch encodePadded(List<String> texts, int maxLength, int padToMultipleOf, long firstIndex) {
+        checkBatchArgs(maxLength, padToMultipleOf);
+        int batchSize = texts.size();
+        int[] rowStarts = new int[batchSize + 1];
+        int[] ids = encodeRows(texts, maxLength, rowStarts);
+        int longest = 0;
+        for (int row = 0; row < batchSize; row++) {
+            longest = Math.max(longest, rowStarts[row + 1] - rowStarts[row] + 2);
+        }
+        int seqLen = paddedLength(longest, maxLength, padToMultipleOf);
+        TokenizerMetrics sampled = sampledMetrics();
+        long buildStart = sampled != null ? System.nanoTime() : 0;
+
+        long[] inputIds = new long[batchSize * seqLen];
+        long[] typeIds = new long[batchSize * seqLen];
+        long[] attentionMask = new long[batchSize * seqLen];
+        int[] rowLengths = new int[batchSize];
+        long cls = vocab.id(clsToken);
+        long sep = vocab.id(sepToken);
+        for (int row = 0; row < batchSize; row++) {
+            int col = row * seqLen;
+            inputIds[col++] = cls;
+            for (int i = rowStarts[row]; i < rowStarts[row + 1]; i++) {
+                inputIds[col++] = ids[i];
+            }
+            inputIds[col++] = sep;
+            Arrays.fill(attentionMask, row * seqLen, col, 1);
+            rowLengths[row] = col - row * seqLen;
+        }
+        if (sampled != null) {
+            sampled.recordStage(TokenizerMetrics.Stage.TENSOR_BUILD, System.nanoTime() - buildStart);
+            sampled.recordPadding(rowStarts[batchSize] + 2L * batchSize, (long) batchSize * seqLen);
+        }
+        return new TokenizedBatch(firstIndex, batchSize, seqLen, inputIds, typeIds, attentionMask, rowLengths);
+    }
+
+    private static void checkBatchArgs(int maxLength, int padToMultipleOf) {
+        if (maxLength < 2) {
+            throw new IllegalArgumentException("maxLength must leave room for [CLS] and [SEP]: " + maxLength);
+        }
+        if (padToMultipleOf < 1) {
+            throw new IllegalArgumentException("padToMultipleOf must be positive: " + padToMultipleOf);
+        }
+    }
+
+    private static int paddedLength(int longest, int maxLength, int padToMultipleOf) {
+        return Math.min(maxLength, (longest + padToMultipleOf - 1) / padToMultipleOf * padToMultipleOf);
+    }
+
+    // Encodes every text, truncated to maxLength - 2 ids, back to back into the returned array; the
+    // ids of text i are [rowStarts[i], rowStarts[i + 1]). Tokenization stops at the cut, so the
+    // tail of a long text costs nothing.
+    private int[] encodeRows(List<String> texts, int maxLength, int[] rowStarts) {
+        TokenSpans words = spans.get();
+        int[] ids = new int[256];
+        for (int row = 0; row < texts.size(); row++) {
+            int count = encodeContentBounded(texts.get(row), maxLength - 2, words);
+            int start = rowStarts[row];
+            if (start + count > ids.length) {
+                ids = Arrays.copyOf(ids, Math.max(ids.length * 2, start + count));
+            }
+            System.arraycopy(words.idScratch(0), 0, ids, start, count);
+            rowStarts[row + 1] = start + count;
+        }
+        return ids;
+    }
+
+    // One input batch of the encoded rows order[from, to), or rows from..to - 1 when order is null.
+    private InputBatch buildInputBatch(int[] ids, int[] rowStarts, int[] order, int from, int to,
+                                       int maxLength, int padToMultipleOf) {
+        int batchSize = to - from;
+        int longest = 0;
+        for (int k = from; k < to; k++) {
+            int row = order != null ? order[k] : k;
+            longest = Math.max(longest, rowStarts[row + 1] - rowStarts[row] + 2);
+        }
+        int seqLen = paddedLength(longest, maxLength, padToMultipleOf);
+        TokenizerMetrics sampled = sampledMetrics();
+        long buildStart = sampled != null ? System.nanoTime() : 0;
+
+        LongBuffer inputIds = tensorBuffers.acquire(batchSize * seqLen);
+        LongBuffer typeIds = tensorBuffers.acquire(batchSize * seqLen);
+        LongBuffer attentionMask = tensorBuffers.acquire(batchSize * seqLen);
+        long cls = vocab.id(clsToken);
+        long sep = vocab.id(sepToken);
+        int[] rowLengths = new int[batchSize];
+        long tokenSlots = 0;
+        for (int k = from; k < to; k++) {
+            int row = order != null ? order[k] : k;
+            int length = rowStarts[row + 1] - rowStarts[row] + 2;
+            rowLengths[k - from] = length;
+            tokenSlots += length;
+            inputIds.put(cls);
+            for (int i = rowStarts[row]; i < rowStarts[row + 1]; i++) {
+                inputIds.put(ids[i]);
+            }
+            inputIds.put(sep);
+            for (int col = 0; col < seqLen; col++) {
+                typeIds.put(0);
+                attentionMask.put(col < length ? 1 : 0);
+            }
+            for (int col = length; col < seqLen; col++) {
+                inputIds.put(0);
+            }
+        }
+        inputIds.rewind();
+        typeIds.rewind();
+        attentionMask.rewind();
+
+        if (sampled != null) {
+            sampled.recordStage(TokenizerMetrics.Stage.TENSOR_BUILD, System.nanoTime() - buildStart);
+            sampled.recordPadding(tokenSlots, (long) batchSize * seqLen);
+        }
+        return new InputBatch(inputIds, typeIds, attentionMask, tensorBuffers, batchSize, seqLen, rowLengths);
+    }
+
+    public int vocabSize() {
+        return vocab.size();
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.java_bert.tokenization;
+
+// [CLS] ids [SEP] of a text encoded with a length bound by BertTokenizer.encode(text, maxLen),
+// and where in the input encoding stopped. The ids array is shared with the caller.
+public class BoundedEncoding {
+    private final long[] ids;
+    private final boolean truncated;
+    private final int stopOffset;
+
+    BoundedEncoding(long[] ids, boolean truncated, int stopOffset) {
+        this.ids = ids;
+        this.truncated = truncated;
+        this.stopOffset = stopOffset;
+    }
+
+    public long[] ids() {
+        return ids;
+    }
+
+    // Number of ids, [CLS] and [SEP] included.
+    public int size() {
+        return ids.length;
+    }
+
+    // Whether the text had more tokens than fit, so some were dropped.
+    public boolean truncated() {
+        return truncated;
+    }
+
+    // Input offset just past the last token kept, or the end of the input when none was
+    // dropped. May fall inside a word whose later pieces were dropped.
+    public int stopOffset() {
+        return stopOffset;
+    }
+
+    @Override
+    public String toString() {
+        return "BoundedEncoding{size=" + ids.length + ", truncated=" + truncated + ", stopOffset=" + stopOffset + "}";
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.java_bert.tokenization;
+
+import java.util.Locale;
+
+// Lowercasing plus accent stripping, as done for uncased vocabularies, precomputed per char for
+// Latin, Greek and Cyrillic and worked out on first use for everything else, so folding a word
+// allocates nothing once its chars have been seen. Chars whose result is not exactly one char
+// (capital sigma, dotted capital I, ...) report UNMAPPED and take the toLowerCase/NFD route,
+// except Hangul syllables, whose NFD jamo follow from a formula.
+final class CaseFolding {
+    static final char UNMAPPED = '\uFFFF';
+    // Folds to nothing, e.g. a combining accent.
+    static final char DROPPED = '\uFFFE';
+    // foldSupplementary results that are not a code point.
+    static final int UNMAPPED_CODE_POINT = -1;
+    static final int DROPPED_CODE_POINT = -2;
+
+    private static final int LATIN_GREEK_CYRILLIC_END = 0x0530;
+    private static final int EXTENDED_START = 0x1E00;
+    private static final int EXTENDED_END = 0x2000;
+
+    // U+0080..U+052F and U+1E00..U+1FFF (Latin Extended Additional, Greek Extended).
+    private static final char[] LATIN_GREEK_CYRILLIC = build(0x80, LATIN_GREEK_CYRILLIC_END);
+    private static final char[] EXTENDED = build(EXTENDED_START, EXTENDED_END);
+    // Every other BMP char, filled in lazily; 0 means not worked out yet. Threads racing on an
+    // entry write the same value, and a char write cannot tear, so no locking is needed.
+    private static final char[] OTHER = new char[0x10000];
+    // Supplementary code points in lazily created pages of 256, with 0 for not worked out yet.
+    private static final int[][] SUPPLEMENTARY = new int[(Character.MAX_CODE_POINT + 1 - 0x10000) >> 8][];
+
+    private static final int HANGUL_BASE = 0xAC00;
+    private static final int HANGUL_COUNT = 11172;
+    private static final int HANGUL_LEADS = 0x1100;
+    private static final int HANGUL_VOWELS = 0x1161;
+    private static final int HANGUL_TAILS = 0x11A7;
+
+    private CaseFolding() {
+    }
+
+    static char fold(char c) {
+        if (c < 0x80) {
+            return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+        }
+        if (c < LATIN_GREEK_CYRILLIC_END) {
+            return LATIN_GREEK_CYRILLIC[c - 0x80];
+        }
+        if (c >= EXTENDED_START && c < EXTENDED_END) {
+            return EXTENDED[c - EXTENDED_START];
+        }
+        char folded = OTHER[c];
+        if (folded == 0) {
+            folded = Character.isSurrogate(c) ? UNMAPPED : foldOf(c);
+            OTHER[c] = folded;
+        }
+        return folded;
+    }
+
+    // Folded form of a supplementary code point when lowercasing gives exactly one (supplementary)
+    // code point and stripping accents leaves at most one, else UNMAPPED_CODE_POINT.
+    static int foldSupplementary(int cp) {
+        int pageIndex = (cp - 0x10000) >> 8;
+        int[] page = SUPPLEMENTARY[pageIndex];
+        if (page == null) {
+            // A page lost to a racing thread only means working its entries out again.
+            page = new int[256];
+            SUPPLEMENTARY[pageIndex] = page;
+        }
+        int folded = page[cp & 0xFF];
+        if (folded == 0) {
+            folded = foldSupplementaryOf(cp);
+            page[cp & 0xFF] = folded;
+        }
+        return folded;
+    }
+
+    static boolean isHangulSyllable(char c) {
+        return c >= HANGUL_BASE && c < HANGUL_BASE + HANGUL_COUNT;
+    }
+
+    // The k-th (0 to 2) jamo of a Hangul syllable's NFD form, or 0 when it has only two.
+    static char hangulJamo(char syllable, int k) {
+        int index = syllable - HANGUL_BASE;
+        if (k == 0) {
+            return (char) (HANGUL_LEADS + index / 588);
+        }
+        if (k == 1) {
+            return (char) (HANGUL_VOWELS + index % 588 / 28);
+        }
+        return index % 28 == 0 ? 0 : (char) (HANGUL_TAILS + index % 28);
+    }
+
+    private static char[] build(int from, int to) {
+        char[] table = new char[to - from];
+        for (int cp = from; cp < to; cp++) {
+            table[cp - from] = foldOf((char) cp);
+        }
+        return table;
+    }
+
+    private static char foldOf(char c) {
+        if (c == 0x03A3) {
+            // Capital sigma depends on its position in the word.
+            return UNMAPPED;
+        }
+        String lowered = String.valueOf(c).toLowerCase(Locale.ROOT);
+        if (lowered.length() != 1) {
+            return UNMAPPED;
+        }
+        String folded = TokenizerUtils.runStripAccents(lowered);
+        if (folded.isEmpty()) {
+            return DROPPED;
+        }
+        return folded.length() == 1 ? folded.charAt(0) : UNMAPPED;
+    }
+
+    private static int foldSupplementaryOf(int cp) {
+        String lowered = new String(Character.toChars(cp)).toLowerCase(Locale.ROOT);
+        if (lowered.length() != 2 || lowered.codePointCount(0, 2) != 1) {
+            return UNMAPPED_CODE_POINT;
+        }
+        String folded = TokenizerUtils.runStripAccents(lowered);
+        if (folded.isEmpty()) {
+            return DROPPED_CODE_POINT;
+        }
+        return folded.codePointCount(0, folded.length()) == 1 ? folded.codePointAt(0) : UNMAPPED_CODE_POINT;
+    }
+}
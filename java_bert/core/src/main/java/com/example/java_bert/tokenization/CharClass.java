@@ -0,0 +1,123 @@
+package com.example.java_bert.tokenization;
+
+import java.util.Arrays;
+
+// Pre-tokenizer class of every code point, computed once from Character.getType: a small table
+// for ASCII, a flat table for the rest of the BMP and sorted ranges for the supplementary
+// planes, built on first use.
+final class CharClass {
+    static final byte OTHER = 0;
+    static final byte WHITESPACE = 1;
+    static final byte PUNCTUATION = 2;
+    static final byte CJK = 3;
+    // Removed by cleaning: NUL, U+FFFD and the categories isControl has always matched, which
+    // include enclosing marks (it compared against type 7) and lone surrogates.
+    static final byte CONTROL = 4;
+
+    private static final byte[] ASCII = new byte[0x80];
+    private static final byte[] BMP = new byte[0x10000];
+
+    static {
+        for (int cp = 0; cp < BMP.length; cp++) {
+            BMP[cp] = compute(cp);
+        }
+        System.arraycopy(BMP, 0, ASCII, 0, ASCII.length);
+    }
+
+    private CharClass() {
+    }
+
+    static byte of(int cp) {
+        if (cp < 0x80) {
+            return ASCII[cp];
+        }
+        if (cp < 0x10000) {
+            return BMP[cp];
+        }
+        return Supplementary.of(cp);
+    }
+
+    private static byte compute(int cp) {
+        if (cp == ' ' || cp == '\t' || cp == '\n' || cp == '\r') {
+            return WHITESPACE;
+        }
+        if (cp == 0xFFFD) {
+            return CONTROL;
+        }
+        switch (Character.getType(cp)) {
+            case Character.CONTROL:
+            case Character.ENCLOSING_MARK:
+            case Character.FORMAT:
+            case Character.PRIVATE_USE:
+            case Character.SURROGATE:
+            case Character.UNASSIGNED:
+                return CONTROL;
+            case Character.SPACE_SEPARATOR:
+                return WHITESPACE;
+            case Character.CONNECTOR_PUNCTUATION:
+            case Character.DASH_PUNCTUATION:
+            case Character.START_PUNCTUATION:
+            case Character.END_PUNCTUATION:
+            case Character.INITIAL_QUOTE_PUNCTUATION:
+            case Character.FINAL_QUOTE_PUNCTUATION:
+            case Character.OTHER_PUNCTUATION:
+                return PUNCTUATION;
+            default:
+                break;
+        }
+        // All non-letter/number ASCII is treated as punctuation, as in the original BERT code.
+        if ((cp >= 33 && cp <= 47) || (cp >= 58 && cp <= 64) || (cp >= 91 && cp <= 96) || (cp >= 123 && cp <= 126)) {
+            return PUNCTUATION;
+        }
+        if ((cp >= 0x4E00 && cp <= 0x9FFF) || (cp >= 0x3400 && cp <= 0x4DBF) || (cp >= 0x20000 && cp <= 0x2A6DF)
+                || (cp >= 0x2A700 && cp <= 0x2B73F) || (cp >= 0x2B740 && cp <= 0x2B81F)
+                || (cp >= 0x2B820 && cp <= 0x2CEAF) || (cp >= 0xF900 && cp <= 0xFAFF)
+                || (cp >= 0x2F800 && cp <= 0x2FA1F)) {
+            return CJK;
+        }
+        return OTHER;
+    }
+
+    // Runs of equal class over U+10000..U+10FFFF: starts[i] begins a run of classes[i].
+    private static final class Supplementary {
+        private static final int[] starts;
+        private static final byte[] classes;
+
+        static {
+            int[] runStarts = new int[1024];
+            byte[] runClasses = new byte[1024];
+            int runs = 0;
+            byte previous = -1;
+            for (int cp = 0x10000; cp <= Character.MAX_CODE_POINT; cp++) {
+                byte cls = compute(cp);
+                if (cls == previous) {
+                    continue;
+                }
+                if (runs == runStarts.length) {
+                    runStarts = Arrays.copyOf(runStarts, runs * 2);
+                    runClasses = Arrays.copyOf(runClasses, runs * 2);
+                }
+                runStarts[runs] = cp;
+                runClasses[runs] = cls;
+                runs++;
+                previous = cls;
+            }
+            starts = Arrays.copyOf(runStarts, runs);
+            classes = Arrays.copyOf(runClasses, runs);
+        }
+
+        static byte of(int cp) {
+            int lo = 0;
+            int hi = starts.length - 1;
+            while (lo < hi) {
+                int mid = (lo + hi + 1) >>> 1;
+                if (starts[mid] <= cp) {
+                    lo = mid;
+                } else {
+                    hi = mid - 1;
+                }
+            }
+            return classes[lo];
+        }
+    }
+}
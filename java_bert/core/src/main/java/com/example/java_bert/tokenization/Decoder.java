@@ -0,0 +1,184 @@
+package com.example.java_bert.tokenization;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+// Turns ids back into text, reading every token straight out of the vocab's packed chars.
+// Continuation pieces ("##ing") are glued to what precedes them and other tokens are separated
+// by one space. Optionally special tokens are skipped, and the spaces that punctuation
+// splitting put before . , ! ? and around an apostrophe between two words are removed
+// ("it ' s" -> "it's"), as transformers' clean_up_tokenization_spaces does.
+public class Decoder {
+    private final Vocab vocab;
+    private final AddedTokens addedTokens;
+    private final int unkId;
+    private final boolean[] special;
+    private final boolean skipSpecialTokens;
+    private final boolean cleanUpSpaces;
+
+    Decoder(Vocab vocab, AddedTokens addedTokens, int unkId, int[] specialIds, boolean skipSpecialTokens,
+            boolean cleanUpSpaces) {
+        this.vocab = vocab;
+        this.addedTokens = addedTokens;
+        this.unkId = unkId;
+        this.special = new boolean[vocab.capacity()];
+        for (int id : specialIds) {
+            if (id >= 0) {
+                special[id] = true;
+            }
+        }
+        this.skipSpecialTokens = skipSpecialTokens;
+        this.cleanUpSpaces = cleanUpSpaces;
+    }
+
+    public String decode(int[] ids) {
+        StringBuilder sb = new StringBuilder(ids.length * 4);
+        decode(ids, 0, ids.length, sb);
+        return sb.toString();
+    }
+
+    public String decode(long[] ids) {
+        StringBuilder sb = new StringBuilder(ids.length * 4);
+        decode(ids, 0, ids.length, sb);
+        return sb.toString();
+    }
+
+    // Appends the text of ids[from, to) to out, e.g. a reused StringBuilder.
+    public void decode(int[] ids, int from, int to, StringBuilder out) {
+        Stream stream = stream(out);
+        for (int i = from; i < to; i++) {
+            stream.appendQuietly(ids[i]);
+        }
+        stream.finishQuietly();
+    }
+
+    public void decode(long[] ids, int from, int to, StringBuilder out) {
+        Stream stream = stream(out);
+        for (int i = from; i < to; i++) {
+            stream.appendQuietly(toId(ids[i]));
+        }
+        stream.finishQuietly();
+    }
+
+    // Incremental decoding into out, one id at a time, e.g. for token-by-token display.
+    public Stream stream(Appendable out) {
+        return new Stream(out);
+    }
+
+    public final class Stream {
+        private final Appendable out;
+        private boolean atStart = true;
+        private boolean glueNext;
+        // An apostrophe after a word, held back until the next token shows whether the spaces
+        // around it go away.
+        private boolean pendingApostrophe;
+
+        private Stream(Appendable out) {
+            this.out = out;
+        }
+
+        // Writes the text for id, except that an apostrophe may only be written with the next id
+        // or on finish().
+        public void append(int id) throws IOException {
+            if (!vocab.contains(id)) {
+                String added = addedTokens.token(id);
+                if (added != null) {
+                    appendAdded(added);
+                    return;
+                }
+                // Unknown ids read as [UNK], or are dropped when the vocab has none.
+                if (unkId < 0) {
+                    return;
+                }
+                id = unkId;
+            }
+            if (special[id] && skipSpecialTokens) {
+                return;
+            }
+            int length = vocab.tokenLength(id);
+            boolean piece = length > 2 && vocab.tokenChar(id, 0) == '#' && vocab.tokenChar(id, 1) == '#';
+            boolean tight = cleanUpSpaces && length == 1 && isTightPunctuation(vocab.tokenChar(id, 0));
+            if (pendingApostrophe) {
+                pendingApostrophe = false;
+                if (piece || tight) {
+                    out.append(" '");
+                } else {
+                    out.append('\'');
+                    glueNext = true;
+                }
+            }
+            if (cleanUpSpaces && !atStart && !glueNext && !piece && length == 1 && vocab.tokenChar(id, 0) == '\'') {
+                pendingApostrophe = true;
+                return;
+            }
+            if (!atStart && !glueNext && !piece && !tight) {
+                out.append(' ');
+            }
+            appendChars(id, piece ? 2 : 0, length);
+            atStart = false;
+            glueNext = false;
+        }
+
+        // Added tokens outside the vocab are never special and always stand alone.
+        private void appendAdded(String token) throws IOException {
+            if (pendingApostrophe) {
+                pendingApostrophe = false;
+                out.append('\'');
+                glueNext = true;
+            }
+            if (!atStart && !glueNext) {
+                out.append(' ');
+            }
+            out.append(token);
+            atStart = false;
+            glueNext = false;
+        }
+
+        public void append(long id) throws IOException {
+            append(toId(id));
+        }
+
+        // Writes anything held back. The stream can keep going afterwards.
+        public void finish() throws IOException {
+            if (pendingApostrophe) {
+                pendingApostrophe = false;
+                out.append(" '");
+            }
+        }
+
+        private void appendChars(int id, int from, int to) throws IOException {
+            int offset = vocab.offsets[id];
+            if (out instanceof StringBuilder) {
+                ((StringBuilder) out).append(vocab.chars, offset + from, to - from);
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                out.append(vocab.chars[offset + i]);
+            }
+        }
+
+        void appendQuietly(int id) {
+            try {
+                append(id);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void finishQuietly() {
+            try {
+                finish();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private int toId(long id) {
+        return id >= 0 && id < Integer.MAX_VALUE ? (int) id : unkId;
+    }
+
+    private static boolean isTightPunctuation(char c) {
+        return c == '.' || c == ',' || c == '!' || c == '?';
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.java_bert.tokenization;
+
+// Token ids of one text with, per id, the [start, end) char range of the original text it
+// covers. The arrays are shared with the caller and must not be modified.
+public class Encoding {
+    private final Vocab vocab;
+    private final AddedTokens addedTokens;
+    private final String unkToken;
+    private final int[] ids;
+    private final int[] starts;
+    private final int[] ends;
+
+    Encoding(Vocab vocab, AddedTokens addedTokens, String unkToken, int[] ids, int[] starts, int[] ends) {
+        this.vocab = vocab;
+        this.addedTokens = addedTokens;
+        this.unkToken = unkToken;
+        this.ids = ids;
+        this.starts = starts;
+        this.ends = ends;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public int id(int i) {
+        return ids[i];
+    }
+
+    public String token(int i) {
+        String token = vocab.token(ids[i]);
+        if (token == null) {
+            token = addedTokens.token(ids[i]);
+        }
+        return token != null ? token : unkToken;
+    }
+
+    // Whether token i is a "##" continuation of the word before it.
+    public boolean isContinuation(int i) {
+        int id = ids[i];
+        return vocab.contains(id) && vocab.tokenLength(id) > 2 && vocab.tokenChar(id, 0) == '#'
+                && vocab.tokenChar(id, 1) == '#';
+    }
+
+    public int start(int i) {
+        return starts[i];
+    }
+
+    public int end(int i) {
+        return ends[i];
+    }
+
+    public int[] ids() {
+        return ids;
+    }
+
+    public int[] starts() {
+        return starts;
+    }
+
+    public int[] ends() {
+        return ends;
+    }
+}
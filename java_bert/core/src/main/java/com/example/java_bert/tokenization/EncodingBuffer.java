@@ -0,0 +1,89 @@
+package com.example.java_bert.tokenization;
+
+import java.util.Arrays;
+
+// Reusable model inputs: input_ids, token_type_ids and attention_mask as row-major
+// [rows, sequenceLength] long arrays, plus the id scratch used while encoding. The arrays only
+// grow, so after warm-up encoding into the same buffer allocates nothing. A single sequence
+// with word indices and no padding goes into a SequenceBuffer instead. Not thread-safe.
+public class EncodingBuffer {
+    private long[] inputIds = new long[0];
+    private long[] tokenTypeIds = new long[0];
+    private long[] attentionMask = new long[0];
+    private int[] lengths = new int[0];
+    private int rows;
+    private int sequenceLength;
+
+    int[] ids = new int[256];
+    int[] firstLengths = new int[0];
+    int[] secondLengths = new int[0];
+
+    public int rows() {
+        return rows;
+    }
+
+    public int sequenceLength() {
+        return sequenceLength;
+    }
+
+    // Unpadded length of a row, special tokens included.
+    public int length(int row) {
+        return lengths[row];
+    }
+
+    // Backing arrays; only the first rows() * sequenceLength() entries are meaningful.
+    public long[] inputIds() {
+        return inputIds;
+    }
+
+    public long[] tokenTypeIds() {
+        return tokenTypeIds;
+    }
+
+    public long[] attentionMask() {
+        return attentionMask;
+    }
+
+    public long inputId(int row, int col) {
+        return inputIds[row * sequenceLength + col];
+    }
+
+    public long tokenTypeId(int row, int col) {
+        return tokenTypeIds[row * sequenceLength + col];
+    }
+
+    public long attentionMask(int row, int col) {
+        return attentionMask[row * sequenceLength + col];
+    }
+
+    void prepareRows(int rows) {
+        if (firstLengths.length < rows) {
+            firstLengths = new int[rows];
+            secondLengths = new int[rows];
+        }
+    }
+
+    void ensureIds(int minLength) {
+        if (ids.length < minLength) {
+            ids = Arrays.copyOf(ids, Math.max(minLength, ids.length * 2));
+        }
+    }
+
+    void reset(int rows, int sequenceLength) {
+        int size = rows * sequenceLength;
+        if (inputIds.length < size) {
+            inputIds = new long[size];
+            tokenTypeIds = new long[size];
+            attentionMask = new long[size];
+        }
+        if (lengths.length < rows) {
+            lengths = new int[rows];
+        }
+        this.rows = rows;
+        this.sequenceLength = sequenceLength;
+    }
+
+    void setLength(int row, int length) {
+        lengths[row] = length;
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.java_bert.tokenization;
+
+// One entity found by LogitsPostProcessor: its type (the label without the B-/I- prefix), the
+// [start, end) char range of the original text and the mean score of its words.
+public class EntitySpan {
+    private final String label;
+    private final int start;
+    private final int end;
+    private final float score;
+
+    EntitySpan(String label, int start, int end, float score) {
+        this.label = label;
+        this.start = start;
+        this.end = end;
+        this.score = score;
+    }
+
+    public String label() {
+        return label;
+    }
+
+    public int start() {
+        return start;
+    }
+
+    public int end() {
+        return end;
+    }
+
+    public float score() {
+        return score;
+    }
+
+    public String text(String original) {
+        return original.substring(start, end);
+    }
+
+    @Override
+    public String toString() {
+        return label + "[" + start + "," + end + ")=" + score;
+    }
+}
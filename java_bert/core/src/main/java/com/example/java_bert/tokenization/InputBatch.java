@@ -0,0 +1,68 @@
+package com.example.java_bert.tokenization;
+
+import java.nio.LongBuffer;
+
+// Model inputs of shape [batchSize, sequenceLength] in pooled direct, native-order buffers, so a
+// runtime can wrap them as tensors without another copy. Closing the batch hands the buffers
+// back to the pool; close anything wrapping them first.
+public class InputBatch implements AutoCloseable {
+    private final LongBuffer inputIds;
+    private final LongBuffer tokenTypeIds;
+    private final LongBuffer attentionMask;
+    private final TensorBufferPool pool;
+    private final int batchSize;
+    private final int sequenceLength;
+    private final int[] rowLengths;
+    private boolean closed;
+
+    InputBatch(LongBuffer inputIds, LongBuffer tokenTypeIds, LongBuffer attentionMask, TensorBufferPool pool,
+               int batchSize, int sequenceLength, int[] rowLengths) {
+        this.inputIds = inputIds;
+        this.tokenTypeIds = tokenTypeIds;
+        this.attentionMask = attentionMask;
+        this.pool = pool;
+        this.batchSize = batchSize;
+        this.sequenceLength = sequenceLength;
+        this.rowLengths = rowLengths;
+    }
+
+    public LongBuffer inputIds() {
+        return inputIds;
+    }
+
+    public LongBuffer tokenTypeIds() {
+        return tokenTypeIds;
+    }
+
+    public LongBuffer attentionMask() {
+        return attentionMask;
+    }
+
+    public int batchSize() {
+        return batchSize;
+    }
+
+    public int sequenceLength() {
+        return sequenceLength;
+    }
+
+    public long[] shape() {
+        return new long[]{batchSize, sequenceLength};
+    }
+
+    // Unpadded length of a row, [CLS] and [SEP] included.
+    public int rowLength(int row) {
+        return rowLengths[row];
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        pool.release(inputIds);
+        pool.release(tokenTypeIds);
+        pool.release(attentionMask);
+    }
+}
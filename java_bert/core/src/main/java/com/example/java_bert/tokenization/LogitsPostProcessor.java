@@ -0,0 +1,157 @@
+package com.example.java_bert.tokenization;
+
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+// Turns token classification logits of shape [batch, seqLen, labels], read by absolute index
+// from a flat FloatBuffer, into label ids, scores and BIO entity spans. Position p of the
+// flattened output starts at index p * labels. OnnxTensor.getFloatBuffer() hands back one flat
+// copy of the output, which is still far cheaper than getValue()'s float[][][].
+public class LogitsPostProcessor {
+    private final String[] labels;
+    // Entity type per label (the label without B-/I-), null for O.
+    private final String[] types;
+    private final boolean[] begins;
+
+    public LogitsPostProcessor(String[] labels) {
+        this.labels = labels.clone();
+        this.types = new String[labels.length];
+        this.begins = new boolean[labels.length];
+        for (int i = 0; i < labels.length; i++) {
+            String label = labels[i];
+            if (label.startsWith("B-") || label.startsWith("I-")) {
+                types[i] = label.substring(2);
+                begins[i] = label.charAt(0) == 'B';
+            } else if (!label.equals("O")) {
+                types[i] = label;
+                begins[i] = true;
+            }
+        }
+    }
+
+    public int labelCount() {
+        return labels.length;
+    }
+
+    public String label(int id) {
+        return labels[id];
+    }
+
+    public void argmax(FloatBuffer logits, int positions, int[] labelIds) {
+        argmax(logits, positions, labelIds, null);
+    }
+
+    // Label with the highest logit for each of the first positions positions. Softmax does not
+    // change the argmax, so no probabilities are computed; when scores is not null it receives
+    // the softmax probability of the winning label, which only needs the sum of exps.
+    public void argmax(FloatBuffer logits, int positions, int[] labelIds, float[] scores) {
+        int n = labels.length;
+        for (int p = 0; p < positions; p++) {
+            int base = p * n;
+            int best = argmaxAt(logits, base);
+            labelIds[p] = best;
+            if (scores != null) {
+                scores[p] = scoreAt(logits, base, best);
+            }
+        }
+    }
+
+    // Full distributions for the first positions positions, written to probabilities
+    // (positions * labels floats, same layout as the logits).
+    public void softmax(FloatBuffer logits, int positions, float[] probabilities) {
+        int n = labels.length;
+        for (int p = 0; p < positions; p++) {
+            int base = p * n;
+            float max = logits.get(base + argmaxAt(logits, base));
+            float sum = 0;
+            for (int k = 0; k < n; k++) {
+                float e = (float) Math.exp(logits.get(base + k) - max);
+                probabilities[base + k] = e;
+                sum += e;
+            }
+            float scale = 1 / sum;
+            for (int k = 0; k < n; k++) {
+                probabilities[base + k] *= scale;
+            }
+        }
+    }
+
+    // Entities of row `row` of the output, whose tokens (without [CLS]/[SEP]) are encoding. A word
+    // takes the label of its first piece and "##" pieces only extend it. B-X, or I-X after a
+    // different type, starts an entity; I-X continues one of type X; O ends it. [CLS], [SEP],
+    // padding and tokens cut off by truncation are ignored.
+    public List<EntitySpan> entities(FloatBuffer logits, int row, int seqLen, Encoding encoding) {
+        int n = labels.length;
+        int tokens = Math.min(encoding.size(), seqLen - 2);
+        List<EntitySpan> entities = new ArrayList<>();
+        String type = null;
+        int start = 0;
+        int end = 0;
+        float scoreSum = 0;
+        int words = 0;
+        for (int i = 0; i < tokens; i++) {
+            if (encoding.isContinuation(i)) {
+                if (type != null) {
+                    end = encoding.end(i);
+                }
+                continue;
+            }
+            int base = (row * seqLen + i + 1) * n;
+            int label = argmaxAt(logits, base);
+            String labelType = types[label];
+            if (type != null && (labelType == null || begins[label] || !labelType.equals(type))) {
+                entities.add(new EntitySpan(type, start, end, scoreSum / words));
+                type = null;
+            }
+            if (labelType == null) {
+                continue;
+            }
+            float score = scoreAt(logits, base, label);
+            if (type == null) {
+                type = labelType;
+                start = encoding.start(i);
+                scoreSum = 0;
+                words = 0;
+            }
+            end = encoding.end(i);
+            scoreSum += score;
+            words++;
+        }
+        if (type != null) {
+            entities.add(new EntitySpan(type, start, end, scoreSum / words));
+        }
+        return entities;
+    }
+
+    // Entities of every row; encodings.get(i) belongs to row i.
+    public List<List<EntitySpan>> entities(FloatBuffer logits, int seqLen, List<Encoding> encodings) {
+        List<List<EntitySpan>> result = new ArrayList<>(encodings.size());
+        for (int row = 0; row < encodings.size(); row++) {
+            result.add(entities(logits, row, seqLen, encodings.get(row)));
+        }
+        return result;
+    }
+
+    private int argmaxAt(FloatBuffer logits, int base) {
+        int best = 0;
+        float max = logits.get(base);
+        for (int k = 1; k < labels.length; k++) {
+            float value = logits.get(base + k);
+            if (value > max) {
+                max = value;
+                best = k;
+            }
+        }
+        return best;
+    }
+
+    private float scoreAt(FloatBuffer logits, int base, int label) {
+        float max = logits.get(base + label);
+        float sum = 0;
+        for (int k = 0; k < labels.length; k++) {
+            sum += (float) Math.exp(logits.get(base + k) - max);
+        }
+        return 1 / sum;
+    }
+}
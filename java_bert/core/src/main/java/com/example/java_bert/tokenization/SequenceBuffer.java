@@ -0,0 +1,130 @@
+package com.example.java_bert.tokenization;
+
+import java.util.Arrays;
+
+// Reusable per-token output of BertTokenizer.encodeInto: one unpadded sequence as ids, token
+// type ids, attention mask and word index in parallel int arrays. The arrays only grow and
+// clear() just resets the size, so once a buffer has seen its longest text, encoding into it
+// allocates nothing. Padded [rows, sequenceLength] model inputs go into an EncodingBuffer
+// instead. Not thread-safe; forCurrentThread() hands each thread a buffer of its own.
+public class SequenceBuffer {
+    // Word index of [CLS], [SEP] and other ids that do not come from a word of the text.
+    public static final int NO_WORD = -1;
+
+    private static final ThreadLocal<SequenceBuffer> PER_THREAD = ThreadLocal.withInitial(SequenceBuffer::new);
+
+    private int[] ids;
+    private int[] typeIds;
+    private int[] attentionMask;
+    private int[] wordIds;
+    private int size;
+    boolean truncated;
+    int stopOffset;
+
+    public SequenceBuffer() {
+        this(128);
+    }
+
+    public SequenceBuffer(int initialCapacity) {
+        ids = new int[initialCapacity];
+        typeIds = new int[initialCapacity];
+        attentionMask = new int[initialCapacity];
+        wordIds = new int[initialCapacity];
+    }
+
+    // The calling thread's buffer. It is overwritten by the next encodeInto into it on this
+    // thread, so copy out anything that has to outlive that.
+    public static SequenceBuffer forCurrentThread() {
+        return PER_THREAD.get();
+    }
+
+    public void clear() {
+        size = 0;
+        truncated = false;
+        stopOffset = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int id(int i) {
+        return ids[i];
+    }
+
+    public int typeId(int i) {
+        return typeIds[i];
+    }
+
+    public int attentionMask(int i) {
+        return attentionMask[i];
+    }
+
+    // Index of the basic-tokenizer word (or added token) id i was split from, counted from 0 per
+    // sequence, or NO_WORD.
+    public int wordId(int i) {
+        return wordIds[i];
+    }
+
+    // Backing arrays; only the first size() entries are meaningful.
+    public int[] ids() {
+        return ids;
+    }
+
+    public int[] typeIds() {
+        return typeIds;
+    }
+
+    public int[] attentionMask() {
+        return attentionMask;
+    }
+
+    public int[] wordIds() {
+        return wordIds;
+    }
+
+    // Whether the last encodeInto with a length bound dropped ids.
+    public boolean truncated() {
+        return truncated;
+    }
+
+    // Input offset just past the last id the last encodeInto kept (see BoundedEncoding).
+    public int stopOffset() {
+        return stopOffset;
+    }
+
+    // Widens the ids into dst from dstPos, e.g. a reused row of an input_ids tensor.
+    public void copyIds(long[] dst, int dstPos) {
+        for (int i = 0; i < size; i++) {
+            dst[dstPos + i] = ids[i];
+        }
+    }
+
+    void ensureCapacity(int minCapacity) {
+        if (ids.length < minCapacity) {
+            int capacity = Math.max(minCapacity, ids.length * 2);
+            ids = Arrays.copyOf(ids, capacity);
+            typeIds = Arrays.copyOf(typeIds, capacity);
+            attentionMask = Arrays.copyOf(attentionMask, capacity);
+            wordIds = Arrays.copyOf(wordIds, capacity);
+        }
+    }
+
+    // Appends count ids from src[srcPos], with their word indices from words[srcPos], all of
+    // type typeId. Room must have been made with ensureCapacity.
+    void append(int[] src, int[] words, int srcPos, int count, int typeId) {
+        System.arraycopy(src, srcPos, ids, size, count);
+        System.arraycopy(words, srcPos, wordIds, size, count);
+        Arrays.fill(typeIds, size, size + count, typeId);
+        Arrays.fill(attentionMask, size, size + count, 1);
+        size += count;
+    }
+
+    void append(int id, int typeId) {
+        ids[size] = id;
+        typeIds[size] = typeId;
+        attentionMask[size] = 1;
+        wordIds[size] = NO_WORD;
+        size++;
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.java_bert.tokenization;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
+// Tokenizes a Reader incrementally and hands out overlapping windows of at most maxLen ids,
+// each wrapped in [CLS] ... [SEP]. Consecutive windows share stride tokens. Input is consumed
+// in chunks cut at whitespace, so memory stays around one chunk plus one window whatever the
+// document size. A run of more than MAX_CHUNK chars without whitespace is cut after its last
+// punctuation char, or anywhere if it has none. No cut falls inside an added token, even one
+// containing whitespace such as "New York", so the windows hold the same ids as encoding the
+// whole text at once.
+public class StreamingEncoder {
+    private static final int CHUNK = 8192;
+    private static final int MAX_CHUNK = 1 << 16;
+
+    private final BertTokenizer tokenizer;
+    private final AddedTokens addedTokens;
+    private final Reader reader;
+    private final int windowTokens;
+    private final int stride;
+    private final long cls;
+    private final long sep;
+    private final TokenSpans words = new TokenSpans();
+    private final int[] match = new int[3];
+
+    private char[] buffer = new char[CHUNK];
+    private int buffered;
+    private boolean eof;
+
+    private int[] pending = new int[CHUNK];
+    private int pendingCount;
+    // Leading pending tokens that were already part of the previous window.
+    private int carried;
+    private boolean emittedAny;
+    private long consumedTokens;
+    private long windowStart = -1;
+
+    StreamingEncoder(BertTokenizer tokenizer, AddedTokens addedTokens, Reader reader, int maxLen, int stride,
+                     long cls, long sep) {
+        if (maxLen < 3) {
+            throw new IllegalArgumentException("maxLen must leave room for [CLS], [SEP] and one token: " + maxLen);
+        }
+        if (stride < 0 || stride >= maxLen - 2) {
+            throw new IllegalArgumentException("stride must be in [0, " + (maxLen - 2) + "): " + stride);
+        }
+        this.tokenizer = tokenizer;
+        this.addedTokens = addedTokens;
+        this.reader = reader;
+        this.windowTokens = maxLen - 2;
+        this.stride = stride;
+        this.cls = cls;
+        this.sep = sep;
+    }
+
+    // Returns the next window, or null once the input is exhausted. An empty input yields a
+    // single [CLS] [SEP] window.
+    public long[] nextWindow() throws IOException {
+        while (pendingCount < windowTokens && !eof) {
+            readChunk();
+        }
+        if (pendingCount >= windowTokens) {
+            long[] window = window(windowTokens);
+            int drop = windowTokens - stride;
+            System.arraycopy(pending, drop, pending, 0, pendingCount - drop);
+            pendingCount -= drop;
+            consumedTokens += drop;
+            carried = stride;
+            return window;
+        }
+        if (pendingCount > carried || !emittedAny) {
+            long[] window = window(pendingCount);
+            consumedTokens += pendingCount;
+            pendingCount = 0;
+            carried = 0;
+            return window;
+        }
+        return null;
+    }
+
+    // Position in the document's token sequence of the first non-[CLS] id of the last window.
+    public long windowStart() {
+        return windowStart;
+    }
+
+    private long[] window(int count) {
+        long[] window = new long[count + 2];
+        window[0] = cls;
+        for (int i = 0; i < count; i++) {
+            window[i + 1] = pending[i];
+        }
+        window[count + 1] = sep;
+        windowStart = consumedTokens;
+        emittedAny = true;
+        return window;
+    }
+
+    private void readChunk() throws IOException {
+        if (buffered == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        int read = reader.read(buffer, buffered, buffer.length - buffered);
+        if (read < 0) {
+            eof = true;
+        } else {
+            buffered += read;
+        }
+        int cut = eof ? buffered : avoidAddedTokens(lastBoundary());
+        if (cut <= 0) {
+            return;
+        }
+        int count = tokenizer.encodeChunk(CharBuffer.wrap(buffer, 0, cut), words);
+        if (pendingCount + count > pending.length) {
+            pending = Arrays.copyOf(pending, Math.max(pending.length * 2, pendingCount + count));
+        }
+        System.arraycopy(words.idScratch(0), 0, pending, pendingCount, count);
+        pendingCount += count;
+        System.arraycopy(buffer, cut, buffer, 0, buffered - cut);
+        buffered -= cut;
+    }
+
+    // End of the text that can be tokenized without seeing what follows: just past the last
+    // whitespace, or once the buffer has grown to MAX_CHUNK, past the last punctuation char.
+    // The cut stays at least the longest added token minus one char before the end of the
+    // buffer, so any added token starting before it is wholly buffered.
+    private int lastBoundary() {
+        int end = buffered - Math.max(addedTokens.maxLength() - 1, 0);
+        for (int i = end - 1; i >= 0; i--) {
+            if (CharClass.of(buffer[i]) == CharClass.WHITESPACE) {
+                return i + 1;
+            }
+        }
+        if (buffered < MAX_CHUNK || end <= 0) {
+            return 0;
+        }
+        for (int i = end - 1; i >= 0; i--) {
+            if (CharClass.of(buffer[i]) == CharClass.PUNCTUATION) {
+                return i + 1;
+            }
+        }
+        return Character.isHighSurrogate(buffer[end - 1]) ? end - 1 : end;
+    }
+
+    // Moves cut back to the start of an added token that straddles it. Tokens are matched the
+    // way encoding the whole text matches them, leftmost-longest from the start of the buffer,
+    // which always begins where a previous chunk ended.
+    private int avoidAddedTokens(int cut) {
+        if (cut <= 0 || addedTokens.size() == 0) {
+            return cut;
+        }
+        CharBuffer text = CharBuffer.wrap(buffer, 0, buffered);
+        int pos = 0;
+        while (pos < cut && addedTokens.find(text, pos, buffered, match) && match[0] < cut) {
+            if (match[1] > cut) {
+                return match[0];
+            }
+            pos = match[1];
+        }
+        return cut;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.java_bert.tokenization;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+// Direct, native-order LongBuffers for tensor input, recycled by power-of-two capacity so a
+// runtime such as ONNX Runtime can wrap them without another copy.
+public class TensorBufferPool {
+    private static final int MAX_POOLED_PER_SIZE = 8;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private final Queue<LongBuffer>[] free = new Queue[32];
+    private final AtomicIntegerArray pooled = new AtomicIntegerArray(32);
+
+    public TensorBufferPool() {
+        for (int i = 0; i < free.length; i++) {
+            free[i] = new ConcurrentLinkedQueue<>();
+        }
+    }
+
+    // Returns a buffer with position 0 and limit = length. Its contents are undefined.
+    public LongBuffer acquire(int length) {
+        int bucket = bucket(length);
+        LongBuffer buffer = free[bucket].poll();
+        if (buffer != null) {
+            pooled.decrementAndGet(bucket);
+        } else {
+            buffer = ByteBuffer.allocateDirect((1 << bucket) * 8).order(ByteOrder.nativeOrder()).asLongBuffer();
+        }
+        buffer.clear();
+        buffer.limit(length);
+        return buffer;
+    }
+
+    // The buffer must no longer be referenced by a live tensor.
+    public void release(LongBuffer buffer) {
+        int bucket = bucket(buffer.capacity());
+        if (1 << bucket != buffer.capacity()) {
+            return;
+        }
+        if (pooled.incrementAndGet(bucket) > MAX_POOLED_PER_SIZE) {
+            pooled.decrementAndGet(bucket);
+            return;
+        }
+        free[bucket].offer(buffer);
+    }
+
+    private static int bucket(int length) {
+        return length <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(length - 1);
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.java_bert.tokenization;
+
+import java.util.Arrays;
+
+// Reusable output of the pre-tokenizer: the cleaned text in one char buffer plus the
+// [start, end) span of every word inside it. Each cleaned char also remembers the
+// [sourceStart, sourceEnd) range of the input it came from.
+public class TokenSpans {
+    char[] chars = new char[64];
+    int[] sourceStarts = new int[64];
+    int[] sourceEnds = new int[64];
+    int length;
+    int[] starts = new int[16];
+    int[] ends = new int[16];
+    // Id of a span that is an added token matched before basic tokenization, else Vocab.NO_ID.
+    int[] fixedIds = new int[16];
+    int count;
+    // What the last WordpieceTokenizer.tokenizeToIds call over these words ran into.
+    int unknownWords;
+    int overlongWords;
+    int cacheHits;
+    int cacheLookups;
+    // Whether the last length-bounded encode dropped ids, and the input offset just past the
+    // last id it kept.
+    boolean truncated;
+    int stopOffset;
+    // start, end and id of the last AddedTokens.find match.
+    final int[] match = new int[3];
+    // Word BasicTokenizer.tokenizeNextWord has started but not ended: where its chars and spans
+    // begin and where its current piece begins, or -1.
+    int openWordStart = -1;
+    int openWordSpans;
+    int openPieceStart = -1;
+    private int[] ids = new int[64];
+    private int[] wordIds = new int[64];
+    private char[] scratchChars = new char[16];
+    private int[] scratchStarts = new int[16];
+    private int[] scratchEnds = new int[16];
+
+    public void clear() {
+        length = 0;
+        count = 0;
+        openWordStart = -1;
+        openPieceStart = -1;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public int start(int i) {
+        return starts[i];
+    }
+
+    public int end(int i) {
+        return ends[i];
+    }
+
+    public char[] chars() {
+        return chars;
+    }
+
+    // Number of cleaned chars held in chars().
+    public int length() {
+        return length;
+    }
+
+    // Input offset of the cleaned char at index.
+    public int sourceStart(int index) {
+        return sourceStarts[index];
+    }
+
+    // Input offset just past the cleaned char at index.
+    public int sourceEnd(int index) {
+        return sourceEnds[index];
+    }
+
+    public String token(int i) {
+        return new String(chars, starts[i], ends[i] - starts[i]);
+    }
+
+    // Scratch space for the ids of the current text, reused across calls. Growing it keeps the
+    // ids it holds.
+    int[] idScratch(int minLength) {
+        if (ids.length < minLength) {
+            ids = Arrays.copyOf(ids, Math.max(minLength, ids.length * 2));
+        }
+        return ids;
+    }
+
+    // Span each id in idScratch came from, filled by length-bounded encodes. Grows like idScratch.
+    int[] wordScratch(int minLength) {
+        if (wordIds.length < minLength) {
+            wordIds = Arrays.copyOf(wordIds, Math.max(minLength, wordIds.length * 2));
+        }
+        return wordIds;
+    }
+
+    // Spans WordPiece can run over: all of them, except those of a word tokenizeNextWord left
+    // open, which may still be merged or re-split when it ends.
+    int completeSpans() {
+        return openWordStart >= 0 ? openWordSpans : count;
+    }
+
+    void append(char c, int sourceStart, int sourceEnd) {
+        if (length == chars.length) {
+            int capacity = length * 2;
+            chars = Arrays.copyOf(chars, capacity);
+            sourceStarts = Arrays.copyOf(sourceStarts, capacity);
+            sourceEnds = Arrays.copyOf(sourceEnds, capacity);
+        }
+        chars[length] = c;
+        sourceStarts[length] = sourceStart;
+        sourceEnds[length] = sourceEnd;
+        length++;
+    }
+
+    void appendCodePoint(int cp, int sourceStart, int sourceEnd) {
+        if (cp < 0x10000) {
+            append((char) cp, sourceStart, sourceEnd);
+        } else {
+            append(Character.highSurrogate(cp), sourceStart, sourceEnd);
+            append(Character.lowSurrogate(cp), sourceStart, sourceEnd);
+        }
+    }
+
+    // Moves chars [from, length) and their sources to the scratch arrays and truncates to from,
+    // so that region can be rewritten. Returns the number of chars moved.
+    int moveToScratch(int from) {
+        int n = length - from;
+        if (scratchChars.length < n) {
+            scratchChars = new char[n * 2];
+            scratchStarts = new int[n * 2];
+            scratchEnds = new int[n * 2];
+        }
+        System.arraycopy(chars, from, scratchChars, 0, n);
+        System.arraycopy(sourceStarts, from, scratchStarts, 0, n);
+        System.arraycopy(sourceEnds, from, scratchEnds, 0, n);
+        length = from;
+        return n;
+    }
+
+    char[] scratchChars() {
+        return scratchChars;
+    }
+
+    int scratchSourceStart(int i) {
+        return scratchStarts[i];
+    }
+
+    int scratchSourceEnd(int i) {
+        return scratchEnds[i];
+    }
+
+    void addSpan(int start, int end) {
+        addSpan(start, end, Vocab.NO_ID);
+    }
+
+    // A span that maps straight to id, skipping WordPiece.
+    void addSpan(int start, int end, int fixedId) {
+        if (count == starts.length) {
+            starts = Arrays.copyOf(starts, count * 2);
+            ends = Arrays.copyOf(ends, count * 2);
+            fixedIds = Arrays.copyOf(fixedIds, count * 2);
+        }
+        starts[count] = start;
+        ends[count] = end;
+        fixedIds[count] = fixedId;
+        count++;
+    }
+
+    void truncateSpans(int newCount) {
+        count = newCount;
+    }
+}
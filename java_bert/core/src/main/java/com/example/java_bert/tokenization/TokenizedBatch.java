@@ -0,0 +1,59 @@
+package com.example.java_bert.tokenization;
+
+// Padded model inputs of a run of texts as row-major [batchSize, sequenceLength] long arrays on
+// the heap, laid out like InputBatch, so the tensors can be created later or on another
+// thread. firstIndex is the position of row 0's text in the stream it came from (see
+// TokenizingProcessor), or 0. The arrays are shared with the caller.
+public class TokenizedBatch {
+    private final long firstIndex;
+    private final int batchSize;
+    private final int sequenceLength;
+    private final long[] inputIds;
+    private final long[] tokenTypeIds;
+    private final long[] attentionMask;
+    private final int[] rowLengths;
+
+    TokenizedBatch(long firstIndex, int batchSize, int sequenceLength, long[] inputIds, long[] tokenTypeIds,
+                   long[] attentionMask, int[] rowLengths) {
+        this.firstIndex = firstIndex;
+        this.batchSize = batchSize;
+        this.sequenceLength = sequenceLength;
+        this.inputIds = inputIds;
+        this.tokenTypeIds = tokenTypeIds;
+        this.attentionMask = attentionMask;
+        this.rowLengths = rowLengths;
+    }
+
+    public long firstIndex() {
+        return firstIndex;
+    }
+
+    public int batchSize() {
+        return batchSize;
+    }
+
+    public int sequenceLength() {
+        return sequenceLength;
+    }
+
+    // Unpadded length of a row, [CLS] and [SEP] included.
+    public int rowLength(int row) {
+        return rowLengths[row];
+    }
+
+    public long[] inputIds() {
+        return inputIds;
+    }
+
+    public long[] tokenTypeIds() {
+        return tokenTypeIds;
+    }
+
+    public long[] attentionMask() {
+        return attentionMask;
+    }
+
+    public long[] shape() {
+        return new long[]{batchSize, sequenceLength};
+    }
+}
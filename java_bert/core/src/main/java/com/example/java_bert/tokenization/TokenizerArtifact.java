@@ -0,0 +1,204 @@
+package com.example.java_bert.tokenization;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+// The vocab and its WordPiece trie, either built from a vocab.txt or loaded from the
+// precompiled binary form written by write()/main(). The binary form is the in-memory arrays
+// as they are, little endian, so loading is a header check and bulk copies into heap arrays.
+// The file is only mapped to read it; the loaded artifact does not keep the mapping, so it
+// costs the same heap as one built from vocab.txt and saves the parsing, not the memory:
+//
+//   int magic, int version, int size, int capacity, int charCount, int tableLength,
+//   int nodeCount, int edgeCount, int suffixRoot,
+//   char[charCount] chars, int[capacity + 1] offsets, int[capacity] hashes,
+//   long[(capacity + 63) / 64] live, int[tableLength] table,
+//   int[nodeCount + 1] edgeStart, char[edgeCount] edgeChars, int[edgeCount] edgeTargets,
+//   int[nodeCount] tokenIds
+public class TokenizerArtifact {
+    static final int MAGIC = 0x4B4F5442; // "BTOK" read little endian
+    static final int VERSION = 1;
+    private static final int HEADER_BYTES = 9 * 4;
+
+    private final Vocab vocab;
+    private final WordpieceTrie trie;
+
+    public TokenizerArtifact(Vocab vocab, WordpieceTrie trie) {
+        this.vocab = vocab;
+        this.trie = trie;
+    }
+
+    public TokenizerArtifact(Vocab vocab) {
+        this(vocab, new WordpieceTrie(vocab));
+    }
+
+    public Vocab getVocab() {
+        return vocab;
+    }
+
+    public WordpieceTrie getTrie() {
+        return trie;
+    }
+
+    // Reads a compiled artifact by mapping the file and copying each section out of it, or
+    // parses the file as a plain vocab.txt when it does not start with the artifact magic.
+    public static TokenizerArtifact load(String path) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(path, "r");
+             FileChannel channel = file.getChannel()) {
+            ByteBuffer head = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(head, 0);
+            if (head.position() < 4 || head.getInt(0) != MAGIC) {
+                return new TokenizerArtifact(Vocab.load(new FileInputStream(path)));
+            }
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    // Same as load(String) for streams such as Android assets, which cannot be mapped.
+    public static TokenizerArtifact load(InputStream in) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(in);
+        buffered.mark(4);
+        byte[] head = new byte[4];
+        int read = 0;
+        while (read < 4) {
+            int n = buffered.read(head, read, 4 - read);
+            if (n < 0) {
+                break;
+            }
+            read += n;
+        }
+        buffered.reset();
+        if (read < 4 || ByteBuffer.wrap(head).order(ByteOrder.LITTLE_ENDIAN).getInt() != MAGIC) {
+            return new TokenizerArtifact(Vocab.load(buffered));
+        }
+        try (InputStream input = buffered) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[64 * 1024];
+            int n;
+            while ((n = input.read(buffer)) != -1) {
+                bytes.write(buffer, 0, n);
+            }
+            return read(ByteBuffer.wrap(bytes.toByteArray()));
+        }
+    }
+
+    // Same as load(InputStream) for contents already in memory.
+    public static TokenizerArtifact load(byte[] contents) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(contents).order(ByteOrder.LITTLE_ENDIAN);
+        if (contents.length < 4 || buffer.getInt(0) != MAGIC) {
+            return new TokenizerArtifact(Vocab.load(new ByteArrayInputStream(contents)));
+        }
+        return read(buffer);
+    }
+
+    static TokenizerArtifact read(ByteBuffer buffer) throws IOException {
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC) {
+            throw new IOException("Not a tokenizer artifact");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported tokenizer artifact version " + version + ", expected " + VERSION);
+        }
+        int size = buffer.getInt();
+        int capacity = buffer.getInt();
+        int charCount = buffer.getInt();
+        int tableLength = buffer.getInt();
+        int nodeCount = buffer.getInt();
+        int edgeCount = buffer.getInt();
+        int suffixRoot = buffer.getInt();
+        long expected = bodyBytes(capacity, charCount, tableLength, nodeCount, edgeCount);
+        if (buffer.remaining() != expected || Integer.bitCount(tableLength) != 1) {
+            throw new IOException("Truncated or corrupt tokenizer artifact");
+        }
+
+        char[] chars = new char[charCount];
+        buffer.asCharBuffer().get(chars);
+        buffer.position(buffer.position() + charCount * 2);
+        int[] offsets = readInts(buffer, capacity + 1);
+        int[] hashes = readInts(buffer, capacity);
+        long[] live = new long[(capacity + 63) >>> 6];
+        buffer.asLongBuffer().get(live);
+        buffer.position(buffer.position() + live.length * 8);
+        int[] table = readInts(buffer, tableLength);
+        int[] edgeStart = readInts(buffer, nodeCount + 1);
+        char[] edgeChars = new char[edgeCount];
+        buffer.asCharBuffer().get(edgeChars);
+        buffer.position(buffer.position() + edgeCount * 2);
+        int[] edgeTargets = readInts(buffer, edgeCount);
+        int[] tokenIds = readInts(buffer, nodeCount);
+
+        Vocab vocab = new Vocab(chars, offsets, hashes, live, table, size);
+        WordpieceTrie trie = new WordpieceTrie(edgeStart, edgeChars, edgeTargets, tokenIds, suffixRoot);
+        return new TokenizerArtifact(vocab, trie);
+    }
+
+    public void write(OutputStream out) throws IOException {
+        int capacity = vocab.capacity();
+        int nodeCount = trie.tokenIds.length;
+        int edgeCount = trie.edgeChars.length;
+        long total = HEADER_BYTES + bodyBytes(capacity, vocab.chars.length, vocab.table.length, nodeCount, edgeCount);
+        ByteBuffer buffer = ByteBuffer.allocate((int) total).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(vocab.size()).putInt(capacity)
+                .putInt(vocab.chars.length).putInt(vocab.table.length)
+                .putInt(nodeCount).putInt(edgeCount).putInt(trie.suffixRoot);
+        for (char c : vocab.chars) {
+            buffer.putChar(c);
+        }
+        putInts(buffer, vocab.offsets);
+        putInts(buffer, vocab.hashes);
+        for (long l : vocab.live) {
+            buffer.putLong(l);
+        }
+        putInts(buffer, vocab.table);
+        putInts(buffer, trie.edgeStart);
+        for (char c : trie.edgeChars) {
+            buffer.putChar(c);
+        }
+        putInts(buffer, trie.edgeTargets);
+        putInts(buffer, trie.tokenIds);
+        out.write(buffer.array());
+    }
+
+    private static long bodyBytes(int capacity, int charCount, int tableLength, int nodeCount, int edgeCount) {
+        return 2L * charCount + 4L * (capacity + 1) + 4L * capacity + 8L * ((capacity + 63) >>> 6)
+                + 4L * tableLength + 4L * (nodeCount + 1) + 2L * edgeCount + 4L * edgeCount + 4L * nodeCount;
+    }
+
+    private static int[] readInts(ByteBuffer buffer, int count) {
+        int[] values = new int[count];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + count * 4);
+        return values;
+    }
+
+    private static void putInts(ByteBuffer buffer, int[] values) {
+        for (int v : values) {
+            buffer.putInt(v);
+        }
+    }
+
+    // Compiles a vocab.txt into the binary artifact: TokenizerArtifact <vocab.txt> <out.bin>
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: TokenizerArtifact <vocab.txt> <out.bin>");
+            System.exit(2);
+        }
+        TokenizerArtifact artifact = new TokenizerArtifact(Vocab.load(new FileInputStream(args[0])));
+        try (OutputStream out = new FileOutputStream(args[1])) {
+            artifact.write(out);
+        }
+        System.out.println("Wrote " + artifact.vocab.size() + " tokens, " + artifact.trie.nodeCount()
+                + " trie nodes to " + args[1]);
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.java_bert.tokenization;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Where the tokenizer reports problems, so the package does not depend on android.util.Log.
+// Defaults to java.util.logging; an Android app can route it to logcat with
+// TokenizerLog.setSink((tag, message, error) -> Log.e(tag, message, error)).
+public final class TokenizerLog {
+
+    public interface Sink {
+        void error(String tag, String message, Throwable error);
+    }
+
+    private static final Sink DEFAULT_SINK =
+            (tag, message, error) -> Logger.getLogger(tag).log(Level.SEVERE, message, error);
+
+    private static volatile Sink sink = DEFAULT_SINK;
+
+    private TokenizerLog() {
+    }
+
+    // null restores the default sink.
+    public static void setSink(Sink newSink) {
+        sink = newSink != null ? newSink : DEFAULT_SINK;
+    }
+
+    static void e(String tag, String message, Throwable error) {
+        sink.error(tag, message, error);
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.java_bert.tokenization;
+
+// Receives timings and counts from BertTokenizer. Only sampled calls are reported (see
+// BertTokenizer.setMetrics), so implementations see a random share of the traffic; ratios
+// come out unbiased, absolute counts have to be scaled by the sampling rate.
+public interface TokenizerMetrics {
+
+    enum Stage {
+        // Cleaning, CJK isolation, whitespace and punctuation splitting (one fused pass).
+        PRE_TOKENIZE,
+        // WordPiece, which yields vocab ids directly.
+        WORDPIECE,
+        // Mapping between token strings and ids (tokenize, convertTokensToIds).
+        ID_LOOKUP,
+        // Filling the input tensors of a batch.
+        TENSOR_BUILD
+    }
+
+    void recordStage(Stage stage, long nanos);
+
+    // One encoded text: its length in chars, the number of WordPiece tokens, how many of those
+    // are [UNK], how many words were over maxInputCharsPerWord, and word cache hits/lookups.
+    void recordText(int chars, int tokens, int unknownTokens, int overlongWords, int cacheHits, int cacheLookups);
+
+    // One tensor batch: slots holding real tokens ([CLS]/[SEP] included) out of all slots.
+    void recordPadding(long tokenSlots, long totalSlots);
+
+    TokenizerMetrics NOOP = new TokenizerMetrics() {
+        @Override
+        public void recordStage(Stage stage, long nanos) {
+        }
+
+        @Override
+        public void recordText(int chars, int tokens, int unknownTokens, int overlongWords, int cacheHits,
+                               int cacheLookups) {
+        }
+
+        @Override
+        public void recordPadding(long tokenSlots, long totalSlots) {
+        }
+    };
+}
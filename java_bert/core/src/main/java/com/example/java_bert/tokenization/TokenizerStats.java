@@ -0,0 +1,129 @@
+package com.example.java_bert.tokenization;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// In-memory TokenizerMetrics: a power-of-two nanosecond histogram per stage plus running totals.
+// Recording is a few uncontended atomic adds; reading may run concurrently with recording and
+// then sees a slightly inconsistent but usable snapshot.
+public class TokenizerStats implements TokenizerMetrics {
+    private static final int BUCKETS = 64;
+
+    private final AtomicLongArray[] histograms = new AtomicLongArray[Stage.values().length];
+    private final LongAdder[] stageNanos = new LongAdder[Stage.values().length];
+    private final LongAdder texts = new LongAdder();
+    private final LongAdder chars = new LongAdder();
+    private final LongAdder tokens = new LongAdder();
+    private final LongAdder unknownTokens = new LongAdder();
+    private final LongAdder overlongWords = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheLookups = new LongAdder();
+    private final LongAdder tokenSlots = new LongAdder();
+    private final LongAdder totalSlots = new LongAdder();
+
+    public TokenizerStats() {
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new AtomicLongArray(BUCKETS);
+            stageNanos[i] = new LongAdder();
+        }
+    }
+
+    @Override
+    public void recordStage(Stage stage, long nanos) {
+        // Bucket b holds durations in [2^(b-1), 2^b).
+        int bucket = nanos <= 0 ? 0 : 64 - Long.numberOfLeadingZeros(nanos);
+        histograms[stage.ordinal()].incrementAndGet(Math.min(bucket, BUCKETS - 1));
+        stageNanos[stage.ordinal()].add(nanos);
+    }
+
+    @Override
+    public void recordText(int chars, int tokens, int unknownTokens, int overlongWords, int cacheHits,
+                           int cacheLookups) {
+        this.texts.increment();
+        this.chars.add(chars);
+        this.tokens.add(tokens);
+        this.unknownTokens.add(unknownTokens);
+        this.overlongWords.add(overlongWords);
+        this.cacheHits.add(cacheHits);
+        this.cacheLookups.add(cacheLookups);
+    }
+
+    @Override
+    public void recordPadding(long tokenSlots, long totalSlots) {
+        this.tokenSlots.add(tokenSlots);
+        this.totalSlots.add(totalSlots);
+    }
+
+    public long count(Stage stage) {
+        AtomicLongArray histogram = histograms[stage.ordinal()];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += histogram.get(i);
+        }
+        return count;
+    }
+
+    public double meanNanos(Stage stage) {
+        long count = count(stage);
+        return count == 0 ? 0 : (double) stageNanos[stage.ordinal()].sum() / count;
+    }
+
+    // Upper bound of the histogram bucket holding the given quantile (0..1), so within 2x.
+    public long quantileNanos(Stage stage, double quantile) {
+        AtomicLongArray histogram = histograms[stage.ordinal()];
+        long target = (long) Math.ceil(quantile * count(stage));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += histogram.get(i);
+            if (seen >= target && seen > 0) {
+                return i == 0 ? 0 : 1L << Math.min(i, 62);
+            }
+        }
+        return 0;
+    }
+
+    // WordPiece tokens per second of pre-tokenization plus WordPiece time, on one thread.
+    public double tokensPerSecond() {
+        long nanos = stageNanos[Stage.PRE_TOKENIZE.ordinal()].sum() + stageNanos[Stage.WORDPIECE.ordinal()].sum();
+        return nanos == 0 ? 0 : tokens.sum() * 1e9 / nanos;
+    }
+
+    public double unknownRate() {
+        long total = tokens.sum();
+        return total == 0 ? 0 : (double) unknownTokens.sum() / total;
+    }
+
+    public long overlongWords() {
+        return overlongWords.sum();
+    }
+
+    public double cacheHitRate() {
+        long lookups = cacheLookups.sum();
+        return lookups == 0 ? 0 : (double) cacheHits.sum() / lookups;
+    }
+
+    // Share of tensor slots that hold padding.
+    public double paddingWasteRatio() {
+        long total = totalSlots.sum();
+        return total == 0 ? 0 : 1 - (double) tokenSlots.sum() / total;
+    }
+
+    public long sampledTexts() {
+        return texts.sum();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Stage stage : Stage.values()) {
+            sb.append(String.format(Locale.ROOT, "%s: n=%d mean=%.0fns p50<=%dns p99<=%dns%n", stage, count(stage),
+                    meanNanos(stage), quantileNanos(stage, 0.5), quantileNanos(stage, 0.99)));
+        }
+        sb.append(String.format(Locale.ROOT,
+                "texts=%d tokens/s=%.0f unk=%.4f overlong=%d cacheHit=%.4f paddingWaste=%.4f",
+                sampledTexts(), tokensPerSecond(), unknownRate(), overlongWords(), cacheHitRate(),
+                paddingWasteRatio()));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.java_bert.tokenization;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.text.Normalizer.Form;
+import java.util.*;
+
+public class TokenizerUtils {
+
+    public static String cleanText(String text) {
+        // Performs invalid character removal and whitespace cleanup on text."""
+        StringBuilder output = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); ) {
+            int cp = text.codePointAt(i);
+            i += Character.charCount(cp);
+            byte cls = CharClass.of(cp);
+            if (cls == CharClass.CONTROL) {
+                continue;
+            }
+            if (cls == CharClass.WHITESPACE) {
+                output.append(' ');
+            } else {
+                output.appendCodePoint(cp);
+            }
+        }
+        return output.toString();
+    }
+
+    public static String tokenizeChineseChars(String text) {
+        // Adds whitespace around any CJK character.
+        StringBuilder output = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); ) {
+            int cp = text.codePointAt(i);
+            i += Character.charCount(cp);
+            if (isChineseChar(cp)) {
+                output.append(' ');
+                output.appendCodePoint(cp);
+                output.append(' ');
+            } else {
+                output.appendCodePoint(cp);
+            }
+        }
+        return output.toString();
+    }
+
+    public static List<String> whitespaceTokenize(String text) {
+        // Runs basic whitespace cleaning and splitting on a piece of text.
+        text = text.trim();
+        if (text.length() > 0) {
+            return Arrays.asList(text.split("\\s+"));
+        }
+        return new ArrayList<>();
+    }
+
+    public static String runStripAccents(String token) {
+        if (hasNoAccents(token)) {
+            return token;
+        }
+        token = Normalizer.normalize(token, Form.NFD);
+        StringBuilder output = new StringBuilder();
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (Character.NON_SPACING_MARK != Character.getType(c)) {
+                output.append(c);
+            }
+        }
+        return output.toString();
+    }
+
+    // True when NFD would leave token unchanged and it has no non-spacing marks, which covers
+    // ASCII and most already-composed text without accents.
+    private static boolean hasNoAccents(String token) {
+        int i = 0;
+        while (i < token.length() && token.charAt(i) < 0x80) {
+            i++;
+        }
+        if (i == token.length()) {
+            return true;
+        }
+        for (; i < token.length(); i++) {
+            if (Character.getType(token.charAt(i)) == Character.NON_SPACING_MARK) {
+                return false;
+            }
+        }
+        return Normalizer.isNormalized(token, Form.NFD);
+    }
+
+    public static List<String> runSplitOnPunc(String token, List<String> neverSplit) {
+        List<String> output = new ArrayList<>();
+        if (neverSplit != null && neverSplit.contains(token)) {
+            output.add(token);
+            return output;
+        }
+
+        StringBuilder str = new StringBuilder();
+        for (int i = 0; i < token.length(); ) {
+            int cp = token.codePointAt(i);
+            i += Character.charCount(cp);
+            if (CharClass.of(cp) == CharClass.PUNCTUATION) {
+                if (str.length() > 0) {
+                    output.add(str.toString());
+                    str.setLength(0);
+                }
+                output.add(new String(Character.toChars(cp)));
+            } else {
+                str.appendCodePoint(cp);
+            }
+        }
+        if (str.length() > 0) {
+            output.add(str.toString());
+        }
+        return output;
+    }
+
+
+    public static Map<String, Integer> generateTokenIdMap(InputStream file) throws IOException {
+        HashMap<String, Integer> tokenIdMap = new HashMap<String, Integer>();
+        if (file == null) {
+            return tokenIdMap;
+        }
+
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(file, StandardCharsets.UTF_8))) {
+
+            String line;
+            int index = 0;
+            while ((line = br.readLine()) != null) {
+                tokenIdMap.put(line, index);
+                index += 1;
+            }
+        }
+        return tokenIdMap;
+    }
+
+    static boolean isPunctuation(char c) {
+        return CharClass.of(c) == CharClass.PUNCTUATION;
+    }
+
+    static boolean isWhitespace(char c) {
+        return CharClass.of(c) == CharClass.WHITESPACE;
+    }
+
+    // Also true for NUL and U+FFFD, which cleaning drops as well.
+    static boolean isControl(char c) {
+        return CharClass.of(c) == CharClass.CONTROL;
+    }
+
+    static boolean isChineseChar(int cp) {
+        return CharClass.of(cp) == CharClass.CJK;
+    }
+
+
+}
\ No newline at end of file
@@ -0,0 +1,396 @@
+package com.example.java_bert.tokenization;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Tokenizes a stream of texts into padded batches: subscribe it to a Publisher<String> and a
+// Subscriber<TokenizedBatch> to it. Texts are cut into batches of batchSize, or fewer once
+// maxWaitMillis has passed since the first text of a batch or the upstream has terminated, and
+// the batches are tokenized on executor, at most parallelism at a time.
+//
+// Memory stays bounded by maxInFlight batches' worth of texts: no more are ever requested from
+// upstream, and a text only stops counting once its batch has been handed downstream, so a
+// burst upstream or a slow subscriber makes the processor stop requesting instead of queueing
+// without bound. With ordered set, batches are emitted in input order, otherwise as soon as each
+// is done; TokenizedBatch.firstIndex() tells which texts a batch holds either way.
+//
+// An upstream error is passed on after the batches already received have been emitted; a
+// tokenization error is passed on at once and cancels the upstream. One subscriber is supported.
+public class TokenizingProcessor implements Flow.Processor<String, TokenizedBatch> {
+    private static final int DEFAULT_MAX_LENGTH = 512;
+    private static final int PAD_TO_MULTIPLE_OF = 8;
+
+    private final BertTokenizer tokenizer;
+    private final Executor executor;
+    private final int batchSize;
+    private final long maxWaitNanos;
+    private final int maxLength;
+    private final int parallelism;
+    private final int maxTexts;
+    private final boolean ordered;
+    // Serializes the signals to the subscriber; see drain.
+    private final AtomicInteger drainers = new AtomicInteger();
+
+    // Everything below is guarded by this.
+    private Flow.Subscription upstream;
+    private Flow.Subscriber<? super TokenizedBatch> downstream;
+    // Set once downstream.onSubscribe has returned; nothing is signalled before.
+    private boolean subscribed;
+    private List<String> filling;
+    private long fillingStart;
+    private long received;
+    // Texts requested from upstream and not yet emitted downstream in a batch.
+    private int ownedTexts;
+    // Batches not started yet because parallelism tasks are running.
+    private final ArrayDeque<Batch> waiting = new ArrayDeque<>();
+    private int running;
+    // When ordered, every batch not emitted yet in input order; otherwise finished batches only.
+    private final ArrayDeque<Batch> pending = new ArrayDeque<>();
+    private long demand;
+    private boolean upstreamDone;
+    private Throwable upstreamError;
+    private Throwable failure;
+    private boolean terminated;
+
+    public TokenizingProcessor(BertTokenizer tokenizer, Executor executor, int batchSize, long maxWaitMillis) {
+        this(tokenizer, executor, batchSize, maxWaitMillis, DEFAULT_MAX_LENGTH,
+                Runtime.getRuntime().availableProcessors(), 2 * Runtime.getRuntime().availableProcessors(), true);
+    }
+
+    public TokenizingProcessor(BertTokenizer tokenizer, Executor executor, int batchSize, long maxWaitMillis,
+                               int maxLength, int parallelism, int maxInFlight, boolean ordered) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+        }
+        if (maxWaitMillis < 0) {
+            throw new IllegalArgumentException("maxWaitMillis must not be negative: " + maxWaitMillis);
+        }
+        if (maxLength < 2) {
+            throw new IllegalArgumentException("maxLength must leave room for [CLS] and [SEP]: " + maxLength);
+        }
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        }
+        if (maxInFlight < 1 || (long) maxInFlight * batchSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("maxInFlight must be positive and fit maxInFlight * batchSize "
+                    + "texts in an int: " + maxInFlight);
+        }
+        this.tokenizer = tokenizer;
+        this.executor = executor;
+        this.batchSize = batchSize;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        this.maxLength = maxLength;
+        this.parallelism = parallelism;
+        this.maxTexts = maxInFlight * batchSize;
+        this.ordered = ordered;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super TokenizedBatch> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        boolean accepted;
+        synchronized (this) {
+            accepted = downstream == null;
+            if (accepted) {
+                downstream = subscriber;
+            }
+        }
+        if (!accepted) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("TokenizingProcessor supports one subscriber"));
+            return;
+        }
+        subscriber.onSubscribe(new Downstream());
+        synchronized (this) {
+            subscribed = true;
+        }
+        requestMore();
+        drain();
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        Objects.requireNonNull(subscription, "subscription");
+        boolean accepted;
+        synchronized (this) {
+            accepted = upstream == null && !terminated;
+            if (accepted) {
+                upstream = subscription;
+            }
+        }
+        if (!accepted) {
+            subscription.cancel();
+            return;
+        }
+        requestMore();
+    }
+
+    @Override
+    public void onNext(String text) {
+        Objects.requireNonNull(text, "text");
+        List<String> started = null;
+        synchronized (this) {
+            if (upstreamDone || terminated) {
+                return;
+            }
+            if (filling == null) {
+                filling = new ArrayList<>(batchSize);
+                fillingStart = received;
+                started = filling;
+            }
+            filling.add(text);
+            received++;
+            if (filling.size() == batchSize || maxWaitNanos == 0) {
+                closeBatch();
+                started = null;
+            }
+        }
+        if (started != null) {
+            List<String> batch = started;
+            try {
+                CompletableFuture.delayedExecutor(maxWaitNanos, TimeUnit.NANOSECONDS, executor)
+                        .execute(() -> closeStale(batch));
+            } catch (RejectedExecutionException e) {
+                fail(e);
+            }
+        }
+        startBatches();
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        Objects.requireNonNull(throwable, "throwable");
+        finishUpstream(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        finishUpstream(null);
+    }
+
+    private void finishUpstream(Throwable error) {
+        synchronized (this) {
+            if (upstreamDone || terminated) {
+                return;
+            }
+            upstreamDone = true;
+            upstreamError = error;
+            if (filling != null) {
+                closeBatch();
+            }
+        }
+        startBatches();
+        drain();
+    }
+
+    // Closes the batch being filled, if it is still the one whose wait started.
+    private void closeStale(List<String> batch) {
+        synchronized (this) {
+            if (filling != batch || terminated) {
+                return;
+            }
+            closeBatch();
+        }
+        startBatches();
+    }
+
+    // Called holding the lock.
+    private void closeBatch() {
+        Batch batch = new Batch(fillingStart, filling);
+        filling = null;
+        waiting.add(batch);
+        if (ordered) {
+            pending.add(batch);
+        }
+    }
+
+    // Requests texts from upstream, a batch's worth or more at a time, up to maxTexts owned.
+    private void requestMore() {
+        Flow.Subscription subscription;
+        int n;
+        synchronized (this) {
+            n = maxTexts - ownedTexts;
+            if (upstream == null || !subscribed || upstreamDone || terminated || n < batchSize) {
+                return;
+            }
+            ownedTexts += n;
+            subscription = upstream;
+        }
+        subscription.request(n);
+    }
+
+    private void startBatches() {
+        while (true) {
+            Batch batch;
+            synchronized (this) {
+                if (running == parallelism || waiting.isEmpty() || terminated || failure != null) {
+                    return;
+                }
+                batch = waiting.poll();
+                running++;
+            }
+            try {
+                executor.execute(() -> tokenize(batch));
+            } catch (RejectedExecutionException e) {
+                synchronized (this) {
+                    running--;
+                }
+                fail(e);
+                return;
+            }
+        }
+    }
+
+    private void tokenize(Batch batch) {
+        TokenizedBatch result = null;
+        RuntimeException error = null;
+        try {
+            result = tokenizer.encodePadded(batch.texts, maxLength, PAD_TO_MULTIPLE_OF, batch.firstIndex);
+        } catch (RuntimeException e) {
+            error = e;
+        }
+        synchronized (this) {
+            running--;
+            batch.texts = null;
+            batch.result = result;
+            if (result != null && !ordered) {
+                pending.add(batch);
+            }
+        }
+        if (error != null) {
+            fail(error);
+            return;
+        }
+        startBatches();
+        drain();
+    }
+
+    private void fail(Throwable error) {
+        synchronized (this) {
+            if (failure == null) {
+                failure = error;
+            }
+        }
+        drain();
+    }
+
+    // Emits finished batches while there is demand, then the terminal signal once due. Only one
+    // thread runs the loop at a time; a call while it runs makes it go round once more.
+    private void drain() {
+        if (drainers.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        while (true) {
+            while (true) {
+                Flow.Subscriber<? super TokenizedBatch> subscriber;
+                Flow.Subscription cancelled = null;
+                TokenizedBatch next = null;
+                Throwable error = null;
+                synchronized (this) {
+                    if (terminated || !subscribed) {
+                        break;
+                    }
+                    subscriber = downstream;
+                    Batch head = pending.peek();
+                    if (failure != null) {
+                        error = failure;
+                        cancelled = upstreamDone ? null : upstream;
+                        terminate();
+                    } else if (head != null && head.result != null && demand > 0) {
+                        pending.poll();
+                        demand--;
+                        ownedTexts -= head.result.batchSize();
+                        next = head.result;
+                    } else if (head == null && upstreamDone && waiting.isEmpty() && running == 0) {
+                        error = upstreamError;
+                        terminate();
+                    } else {
+                        break;
+                    }
+                }
+                if (cancelled != null) {
+                    cancelled.cancel();
+                }
+                if (next != null) {
+                    subscriber.onNext(next);
+                    requestMore();
+                } else if (error != null) {
+                    subscriber.onError(error);
+                } else {
+                    subscriber.onComplete();
+                }
+            }
+            missed = drainers.addAndGet(-missed);
+            if (missed == 0) {
+                return;
+            }
+        }
+    }
+
+    // Called holding the lock.
+    private void terminate() {
+        terminated = true;
+        filling = null;
+        waiting.clear();
+        pending.clear();
+    }
+
+    private final class Downstream implements Flow.Subscription {
+        @Override
+        public void request(long n) {
+            synchronized (TokenizingProcessor.this) {
+                if (n <= 0) {
+                    if (failure == null) {
+                        failure = new IllegalArgumentException("request must be positive: " + n);
+                    }
+                } else {
+                    demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+                }
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            Flow.Subscription subscription;
+            synchronized (TokenizingProcessor.this) {
+                if (terminated) {
+                    return;
+                }
+                terminate();
+                subscription = upstreamDone ? null : upstream;
+            }
+            if (subscription != null) {
+                subscription.cancel();
+            }
+        }
+    }
+
+    private static final class Batch {
+        final long firstIndex;
+        List<String> texts;
+        TokenizedBatch result;
+
+        Batch(long firstIndex, List<String> texts) {
+            this.firstIndex = firstIndex;
+            this.texts = texts;
+        }
+    }
+}
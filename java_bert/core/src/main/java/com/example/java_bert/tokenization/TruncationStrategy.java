@@ -0,0 +1,46 @@
+package com.example.java_bert.tokenization;
+
+// How a sentence pair is cut down to fit maxLength. Tokens are always dropped from the end of a
+// sequence.
+public enum TruncationStrategy {
+    // Drops one token at a time from whichever sequence is longer (the second on ties).
+    LONGEST_FIRST {
+        @Override
+        int keepFirst(int first, int second, int budget) {
+            if (first + second <= budget || 2 * first <= budget) {
+                return first;
+            }
+            if (2 * second <= budget) {
+                return budget - second;
+            }
+            return (budget + 1) / 2;
+        }
+    },
+    // Only the first sequence is cut; fails if the second alone does not fit.
+    ONLY_FIRST {
+        @Override
+        int keepFirst(int first, int second, int budget) {
+            if (second > budget) {
+                throw new IllegalArgumentException(
+                        "Second sequence has more than the " + budget + " tokens that fit");
+            }
+            return Math.min(first, budget - second);
+        }
+    },
+    // Only the second sequence is cut; fails if the first alone does not fit.
+    ONLY_SECOND {
+        @Override
+        int keepFirst(int first, int second, int budget) {
+            if (first > budget) {
+                throw new IllegalArgumentException(
+                        "First sequence has more than the " + budget + " tokens that fit");
+            }
+            return first;
+        }
+    };
+
+    // Tokens of the first sequence to keep when first + second may hold at most budget tokens.
+    // The second keeps min(second, budget - keepFirst(...)). The result is the same when either
+    // length is capped at budget + 1, so callers need not encode a side past that.
+    abstract int keepFirst(int first, int second, int budget);
+}
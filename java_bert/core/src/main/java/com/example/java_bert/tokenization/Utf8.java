@@ -0,0 +1,74 @@
+package com.example.java_bert.tokenization;
+
+import java.nio.ByteBuffer;
+
+// Decodes one code point at a time straight from UTF-8 bytes. decode returns the code point and
+// the number of bytes it took packed in one int. Ill-formed input decodes to U+FFFD exactly as
+// new String(bytes, UTF_8) does: one per maximal ill-formed subpart, as the Unicode standard
+// recommends, except that an encoded surrogate (ED A0..BF, plus a continuation byte if there is
+// one) is a single U+FFFD. A byte that could start a valid sequence is never swallowed.
+final class Utf8 {
+    static final int REPLACEMENT = 0xFFFD;
+
+    private Utf8() {
+    }
+
+    static int codePoint(int decoded) {
+        return decoded & 0x1FFFFF;
+    }
+
+    static int length(int decoded) {
+        return decoded >>> 21;
+    }
+
+    // Decodes the code point starting at utf8[i], reading no further than end (exclusive).
+    static int decode(ByteBuffer utf8, int i, int end) {
+        int b0 = utf8.get(i) & 0xFF;
+        if (b0 < 0x80) {
+            return 1 << 21 | b0;
+        }
+        int needed;
+        int min = 0x80;
+        int max = 0xBF;
+        int cp;
+        if (b0 >= 0xC2 && b0 <= 0xDF) {
+            needed = 1;
+            cp = b0 & 0x1F;
+        } else if (b0 >= 0xE0 && b0 <= 0xEF) {
+            needed = 2;
+            cp = b0 & 0x0F;
+            if (b0 == 0xE0) {
+                min = 0xA0;  // overlong
+            } else if (b0 == 0xED) {
+                max = 0x9F;  // surrogates
+            }
+        } else if (b0 >= 0xF0 && b0 <= 0xF4) {
+            needed = 3;
+            cp = b0 & 0x07;
+            if (b0 == 0xF0) {
+                min = 0x90;  // overlong
+            } else if (b0 == 0xF4) {
+                max = 0x8F;  // above U+10FFFF
+            }
+        } else {
+            return 1 << 21 | REPLACEMENT;
+        }
+        // Only the first continuation byte has a narrowed range.
+        for (int k = 1; k <= needed; k++) {
+            if (i + k >= end) {
+                return k << 21 | REPLACEMENT;
+            }
+            int b = utf8.get(i + k) & 0xFF;
+            if (b < min || b > max) {
+                if (b0 == 0xED && k == 1 && b >= 0xA0 && b <= 0xBF) {
+                    return (i + 2 < end && (utf8.get(i + 2) & 0xC0) == 0x80 ? 3 : 2) << 21 | REPLACEMENT;
+                }
+                return k << 21 | REPLACEMENT;
+            }
+            cp = cp << 6 | (b & 0x3F);
+            min = 0x80;
+            max = 0xBF;
+        }
+        return (needed + 1) << 21 | cp;
+    }
+}
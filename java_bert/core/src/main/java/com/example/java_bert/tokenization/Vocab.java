@@ -0,0 +1,234 @@
+package com.example.java_bert.tokenization;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+// Token <-> id store without boxed maps: every token's chars sit back to back in one buffer,
+// id -> token is an offset array into it and token -> id is an open-addressing table of ids.
+public class Vocab {
+    static final int NO_ID = -1;
+
+    final char[] chars;
+    final int[] offsets;
+    final int[] hashes;
+    final long[] live;
+    final int[] table;
+    private final int mask;
+    private final int size;
+
+    Vocab(char[] chars, int[] offsets, int[] hashes, long[] live, int[] table, int size) {
+        this.chars = chars;
+        this.offsets = offsets;
+        this.hashes = hashes;
+        this.live = live;
+        this.table = table;
+        this.mask = table.length - 1;
+        this.size = size;
+    }
+
+    public Vocab(Map<String, Integer> tokenIdMap) {
+        this(tokensById(tokenIdMap));
+    }
+
+    // tokens[id] is the token for id; null entries leave that id unused.
+    public Vocab(String[] tokens) {
+        int totalChars = 0;
+        int entries = 0;
+        for (String token : tokens) {
+            if (token != null) {
+                totalChars += token.length();
+                entries++;
+            }
+        }
+        this.chars = new char[totalChars];
+        this.offsets = new int[tokens.length + 1];
+        this.hashes = new int[tokens.length];
+        this.live = new long[(tokens.length + 63) >>> 6];
+        this.table = newTable(entries);
+        this.mask = table.length - 1;
+
+        int pos = 0;
+        int distinct = 0;
+        for (int id = 0; id < tokens.length; id++) {
+            offsets[id] = pos;
+            String token = tokens[id];
+            if (token == null) {
+                continue;
+            }
+            token.getChars(0, token.length(), chars, pos);
+            pos += token.length();
+            offsets[id + 1] = pos;
+            if (insert(id)) {
+                distinct++;
+            }
+        }
+        offsets[tokens.length] = pos;
+        this.size = distinct;
+    }
+
+    // Reads one token per UTF-8 line; the line number is the id and, as with a map, a repeated
+    // token resolves to its last line.
+    public static Vocab load(InputStream file) throws IOException {
+        List<String> tokens = new ArrayList<>();
+        if (file != null) {
+            try (BufferedReader br = new BufferedReader(new InputStreamReader(file, StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = br.readLine()) != null) {
+                    tokens.add(line);
+                }
+            }
+        }
+        return new Vocab(tokens.toArray(new String[0]));
+    }
+
+    private static String[] tokensById(Map<String, Integer> tokenIdMap) {
+        int capacity = 0;
+        for (int id : tokenIdMap.values()) {
+            capacity = Math.max(capacity, id + 1);
+        }
+        String[] tokens = new String[capacity];
+        for (Map.Entry<String, Integer> entry : tokenIdMap.entrySet()) {
+            tokens[entry.getValue()] = entry.getKey();
+        }
+        return tokens;
+    }
+
+    private static int[] newTable(int entries) {
+        int capacity = Integer.highestOneBit(Math.max(entries, 1) * 2 - 1) << 1;
+        int[] table = new int[Math.max(capacity, 2)];
+        Arrays.fill(table, NO_ID);
+        return table;
+    }
+
+    // Returns true when the token was new, false when it replaced an earlier id.
+    private boolean insert(int id) {
+        int start = offsets[id];
+        int end = offsets[id + 1];
+        int hash = hash(chars, start, end);
+        hashes[id] = hash;
+        live[id >>> 6] |= 1L << id;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int other = table[slot];
+            if (other == NO_ID) {
+                table[slot] = id;
+                return true;
+            }
+            if (hashes[other] == hash && regionEquals(other, chars, start, end)) {
+                table[slot] = id;
+                live[other >>> 6] &= ~(1L << other);
+                return false;
+            }
+        }
+    }
+
+    public int id(CharSequence token) {
+        return id(token, 0, token.length());
+    }
+
+    public int id(CharSequence token, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + token.charAt(i);
+        }
+        int hash = mix(h);
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int id = table[slot];
+            if (id == NO_ID) {
+                return NO_ID;
+            }
+            if (hashes[id] == hash && offsets[id + 1] - offsets[id] == end - start) {
+                int offset = offsets[id] - start;
+                int i = start;
+                while (i < end && chars[offset + i] == token.charAt(i)) {
+                    i++;
+                }
+                if (i == end) {
+                    return id;
+                }
+            }
+        }
+    }
+
+    public int id(char[] buf, int start, int end) {
+        int hash = hash(buf, start, end);
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int id = table[slot];
+            if (id == NO_ID) {
+                return NO_ID;
+            }
+            if (hashes[id] == hash && regionEquals(id, buf, start, end)) {
+                return id;
+            }
+        }
+    }
+
+    public boolean contains(int id) {
+        return id >= 0 && id < hashes.length && (live[id >>> 6] & (1L << id)) != 0;
+    }
+
+    // Returns null for ids that no token maps to, as the old id -> token map did.
+    public String token(int id) {
+        if (!contains(id)) {
+            return null;
+        }
+        return new String(chars, offsets[id], offsets[id + 1] - offsets[id]);
+    }
+
+    public void appendToken(int id, StringBuilder sb) {
+        sb.append(chars, offsets[id], offsets[id + 1] - offsets[id]);
+    }
+
+    public int tokenLength(int id) {
+        return offsets[id + 1] - offsets[id];
+    }
+
+    public char tokenChar(int id, int index) {
+        return chars[offsets[id] + index];
+    }
+
+    // Number of distinct tokens.
+    public int size() {
+        return size;
+    }
+
+    // One past the largest id.
+    public int capacity() {
+        return hashes.length;
+    }
+
+    private boolean regionEquals(int id, char[] buf, int start, int end) {
+        int offset = offsets[id];
+        int length = offsets[id + 1] - offset;
+        if (length != end - start) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (chars[offset + i] != buf[start + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int hash(char[] buf, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + buf[i];
+        }
+        return mix(h);
+    }
+
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        return h;
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.java_bert.tokenization;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Shares one TokenizerArtifact between every tokenizer loaded from the same vocab contents, so
+// several models using the same vocab.txt pay for its parse and its arrays once. Entries are
+// keyed by the SHA-256 of the file contents, not its path, so copies of a vocab under different
+// names are shared too.
+//
+// An artifact is never mutated after it is built (Vocab and WordpieceTrie are final arrays that
+// are only read), so it is safe to use from any number of tokenizers and threads. Casing and
+// the other BertTokenizer settings are not part of it and stay per tokenizer, which is cheap.
+// The registry only holds artifacts softly: every BertTokenizer keeps a strong reference to its
+// artifact, so one stays loaded while a tokenizer uses it and may be dropped under memory
+// pressure once none does. Concurrent requests for contents that are still loading wait for
+// that load instead of parsing again.
+public final class VocabRegistry {
+    private static final VocabRegistry SHARED = new VocabRegistry();
+
+    private final ConcurrentHashMap<Key, Entry> loaded = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Key, CompletableFuture<TokenizerArtifact>> loading = new ConcurrentHashMap<>();
+    private final ReferenceQueue<TokenizerArtifact> released = new ReferenceQueue<>();
+
+    public static VocabRegistry shared() {
+        return SHARED;
+    }
+
+    public BertTokenizer tokenizer(String vocabFile, boolean doLowerCase) throws IOException {
+        return new BertTokenizer(artifact(vocabFile), doLowerCase);
+    }
+
+    public BertTokenizer tokenizer(InputStream vocabStream, boolean doLowerCase) throws IOException {
+        return new BertTokenizer(artifact(vocabStream), doLowerCase);
+    }
+
+    // vocabFile may be a plain vocab.txt or a compiled artifact, as for BertTokenizer. The file
+    // is hashed through a read-only mapping, so a hit never copies it onto the heap.
+    public TokenizerArtifact artifact(String vocabFile) throws IOException {
+        MessageDigest digest = sha256();
+        try (FileChannel channel = FileChannel.open(Paths.get(vocabFile), StandardOpenOption.READ)) {
+            digest.update(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+        return artifact(new Key(digest.digest()), () -> TokenizerArtifact.load(vocabFile));
+    }
+
+    // Reads the stream to the end; the caller closes it.
+    public TokenizerArtifact artifact(InputStream vocabStream) throws IOException {
+        if (vocabStream == null) {
+            throw new IllegalArgumentException("vocabStream is null");
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[64 * 1024];
+        int n;
+        while ((n = vocabStream.read(buffer)) != -1) {
+            bytes.write(buffer, 0, n);
+        }
+        return artifact(bytes.toByteArray());
+    }
+
+    public TokenizerArtifact artifact(byte[] contents) throws IOException {
+        return artifact(new Key(sha256().digest(contents)), () -> TokenizerArtifact.load(contents));
+    }
+
+    private TokenizerArtifact artifact(Key key, Loader loader) throws IOException {
+        purge();
+        TokenizerArtifact artifact = get(key);
+        if (artifact != null) {
+            return artifact;
+        }
+        CompletableFuture<TokenizerArtifact> load = new CompletableFuture<>();
+        CompletableFuture<TokenizerArtifact> pending = loading.putIfAbsent(key, load);
+        if (pending != null) {
+            return await(pending);
+        }
+        try {
+            // Another thread may have finished loading between get() and putIfAbsent().
+            artifact = get(key);
+            if (artifact == null) {
+                artifact = loader.load();
+                loaded.put(key, new Entry(key, artifact, released));
+            }
+            load.complete(artifact);
+            return artifact;
+        } catch (IOException | RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, load);
+        }
+    }
+
+    // Number of artifacts currently held, including ones the GC is about to clear.
+    public int size() {
+        purge();
+        return loaded.size();
+    }
+
+    private TokenizerArtifact get(Key key) {
+        Entry entry = loaded.get(key);
+        return entry != null ? entry.get() : null;
+    }
+
+    private static TokenizerArtifact await(CompletableFuture<TokenizerArtifact> pending) throws IOException {
+        try {
+            return pending.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw new IOException(cause.getMessage(), cause);
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw e;
+        }
+    }
+
+    // Drops map entries whose artifact the GC has cleared.
+    private void purge() {
+        Entry entry;
+        while ((entry = (Entry) released.poll()) != null) {
+            loaded.remove(entry.key, entry);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private interface Loader {
+        TokenizerArtifact load() throws IOException;
+    }
+
+    private static final class Key {
+        private final byte[] digest;
+        private final int hash;
+
+        Key(byte[] digest) {
+            this.digest = digest;
+            this.hash = Arrays.hashCode(digest);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && Arrays.equals(digest, ((Key) o).digest);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class Entry extends SoftReference<TokenizerArtifact> {
+        final Key key;
+
+        Entry(Key key, TokenizerArtifact artifact, ReferenceQueue<TokenizerArtifact> queue) {
+            super(artifact, queue);
+            this.key = key;
+        }
+    }
+}
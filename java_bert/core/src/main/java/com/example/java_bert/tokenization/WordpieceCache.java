@@ -0,0 +1,247 @@
+package com.example.java_bert.tokenization;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Bounded cache from a pre-tokenized word to its WordPiece ids, for one vocab.
+//
+// Lookups walk a fixed array of bucket chains through volatile reads only, so readers never
+// block. A hit just sets the entry's referenced bit. Inserts take a lock and, when over budget,
+// evict with a segmented LRU: new entries start in a probation segment; when one reaches the
+// head, a set referenced bit promotes it to the protected segment instead of evicting it, and
+// the protected segment (80% of the budget) spills its least recent entries back to probation.
+public class WordpieceCache {
+    private static final int ENTRY_OVERHEAD_BYTES = 64;
+
+    private final AtomicReferenceArray<Node> buckets;
+    private final int mask;
+    private final long maxWeight;
+    private final long maxProtectedWeight;
+    private final boolean weighByBytes;
+
+    private final Node probation = new Node(null, 0, null, 0);
+    private final Node protectedSegment = new Node(null, 0, null, 0);
+    private long probationWeight;
+    private long protectedWeight;
+    private int size;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private WordpieceCache(long maxWeight, int expectedEntries, boolean weighByBytes) {
+        if (maxWeight <= 0) {
+            throw new IllegalArgumentException("Cache bound must be positive: " + maxWeight);
+        }
+        int capacity = Integer.highestOneBit(Math.max(16, Math.min(expectedEntries, 1 << 24)) * 2 - 1);
+        this.buckets = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+        this.maxWeight = maxWeight;
+        this.maxProtectedWeight = maxWeight * 4 / 5;
+        this.weighByBytes = weighByBytes;
+        probation.prev = probation;
+        probation.after = probation;
+        protectedSegment.prev = protectedSegment;
+        protectedSegment.after = protectedSegment;
+    }
+
+    public static WordpieceCache ofEntries(int maxEntries) {
+        return new WordpieceCache(maxEntries, maxEntries, false);
+    }
+
+    // Bounded by an estimate of the retained heap: key chars, ids and a fixed per-entry overhead.
+    public static WordpieceCache ofBytes(long maxBytes) {
+        return new WordpieceCache(maxBytes, (int) Math.min(Integer.MAX_VALUE, maxBytes / 96), true);
+    }
+
+    // Returns the cached ids of chars[start, end), or null. The array is shared; do not modify it.
+    public int[] get(char[] chars, int start, int end) {
+        int hash = hash(chars, start, end);
+        for (Node node = buckets.get(hash & mask); node != null; node = node.next) {
+            if (node.hash == hash && node.matches(chars, start, end)) {
+                if (!node.referenced) {
+                    node.referenced = true;
+                }
+                hits.increment();
+                return node.ids;
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    public void put(char[] chars, int start, int end, int[] ids, int idsStart, int count) {
+        int hash = hash(chars, start, end);
+        int bucket = hash & mask;
+        char[] key = new char[end - start];
+        System.arraycopy(chars, start, key, 0, key.length);
+        int[] value = new int[count];
+        System.arraycopy(ids, idsStart, value, 0, count);
+        int weight = weighByBytes ? ENTRY_OVERHEAD_BYTES + 2 * key.length + 4 * count : 1;
+        if (weight > maxWeight) {
+            return;
+        }
+        Node node = new Node(key, hash, value, weight);
+        synchronized (this) {
+            for (Node other = buckets.get(bucket); other != null; other = other.next) {
+                if (other.hash == hash && other.matches(chars, start, end)) {
+                    return;
+                }
+            }
+            node.next = buckets.get(bucket);
+            buckets.set(bucket, node);
+            linkLast(probation, node);
+            probationWeight += weight;
+            size++;
+            evict();
+        }
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    public double hitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized long weight() {
+        return probationWeight + protectedWeight;
+    }
+
+    public synchronized void clear() {
+        for (int i = 0; i < buckets.length(); i++) {
+            buckets.set(i, null);
+        }
+        probation.prev = probation;
+        probation.after = probation;
+        protectedSegment.prev = protectedSegment;
+        protectedSegment.after = protectedSegment;
+        probationWeight = 0;
+        protectedWeight = 0;
+        size = 0;
+    }
+
+    // Caller holds the lock.
+    private void evict() {
+        // Every entry gets at most one second chance per pass, so this always terminates.
+        int secondChances = size;
+        while (probationWeight + protectedWeight > maxWeight) {
+            Node victim = probation.after;
+            if (victim == probation) {
+                victim = protectedSegment.after;
+                unlink(victim);
+                protectedWeight -= victim.weight;
+                linkLast(probation, victim);
+                probationWeight += victim.weight;
+                victim.referenced = false;
+                continue;
+            }
+            if (victim.referenced && secondChances-- > 0) {
+                victim.referenced = false;
+                unlink(victim);
+                probationWeight -= victim.weight;
+                linkLast(protectedSegment, victim);
+                protectedWeight += victim.weight;
+                while (protectedWeight > maxProtectedWeight) {
+                    Node demoted = protectedSegment.after;
+                    unlink(demoted);
+                    protectedWeight -= demoted.weight;
+                    linkLast(probation, demoted);
+                    probationWeight += demoted.weight;
+                }
+                continue;
+            }
+            unlink(victim);
+            probationWeight -= victim.weight;
+            removeFromBucket(victim);
+            size--;
+            evictions.increment();
+        }
+    }
+
+    private void removeFromBucket(Node victim) {
+        int bucket = victim.hash & mask;
+        Node head = buckets.get(bucket);
+        if (head == victim) {
+            buckets.set(bucket, victim.next);
+            return;
+        }
+        for (Node node = head; node != null; node = node.next) {
+            if (node.next == victim) {
+                // Readers standing on victim still follow victim.next, which stays intact.
+                node.next = victim.next;
+                return;
+            }
+        }
+    }
+
+    private static void linkLast(Node segment, Node node) {
+        node.prev = segment.prev;
+        node.after = segment;
+        segment.prev.after = node;
+        segment.prev = node;
+    }
+
+    private static void unlink(Node node) {
+        node.prev.after = node.after;
+        node.after.prev = node.prev;
+        node.prev = null;
+        node.after = null;
+    }
+
+    private static int hash(char[] chars, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + chars[i];
+        }
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        return h ^ (h >>> 13);
+    }
+
+    private static final class Node {
+        final char[] key;
+        final int hash;
+        final int[] ids;
+        final int weight;
+        volatile Node next;
+        volatile boolean referenced;
+        // Segment links, guarded by the cache lock.
+        Node prev;
+        Node after;
+
+        Node(char[] key, int hash, int[] ids, int weight) {
+            this.key = key;
+            this.hash = hash;
+            this.ids = ids;
+            this.weight = weight;
+        }
+
+        boolean matches(char[] chars, int start, int end) {
+            if (key.length != end - start) {
+                return false;
+            }
+            for (int i = 0; i < key.length; i++) {
+                if (key[i] != chars[start + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.example.java_bert.tokenization;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class WordpieceTokenizer implements Tokenizer  {
+    private final Vocab vocab;
+    private final WordpieceTrie trie;
+    private final String unkToken;
+    private final int unkId;
+    private final int maxInputCharsPerWord;
+
+    public WordpieceTokenizer(Vocab vocab, WordpieceTrie trie, String unkToken, int maxInputCharsPerWord) {
+        this.vocab = vocab;
+        this.trie = trie;
+        this.unkToken = unkToken;
+        this.unkId = vocab.id(unkToken);
+        this.maxInputCharsPerWord = maxInputCharsPerWord;
+    }
+
+    public WordpieceTokenizer(Vocab vocab, String unkToken, int maxInputCharsPerWord) {
+        this(vocab, new WordpieceTrie(vocab), unkToken, maxInputCharsPerWord);
+    }
+
+    public WordpieceTokenizer(Vocab vocab, String unkToken) {
+        this(vocab, unkToken, 100);
+    }
+
+    public WordpieceTokenizer(Map<String, Integer> vocab, String unkToken, int maxInputCharsPerWord) {
+        this(new Vocab(vocab), unkToken, maxInputCharsPerWord);
+    }
+
+    public WordpieceTokenizer(Map<String, Integer> vocab, String unkToken) {
+        this(vocab, unkToken, 100);
+    }
+
+    @Override
+    public List<String> tokenize(String text) {
+        List<String> outputTokens = new ArrayList<>();
+        char[] chars = new char[0];
+        int[] ids = new int[0];
+        for (String token : TokenizerUtils.whitespaceTokenize(text)) {
+            if (token.length() > maxInputCharsPerWord) {
+                outputTokens.add(unkToken);
+                continue;
+            }
+            if (chars.length < token.length()) {
+                chars = new char[token.length()];
+                ids = new int[token.length()];
+            }
+            token.getChars(0, token.length(), chars, 0);
+            int count = wordpieceIds(chars, 0, token.length(), ids, 0);
+            if (count < 0) {
+                outputTokens.add(unkToken);
+                continue;
+            }
+            for (int i = 0; i < count; i++) {
+                outputTokens.add(vocab.token(ids[i]));
+            }
+        }
+        return outputTokens;
+    }
+
+    // Runs WordPiece directly over the word spans left by BasicTokenizer.tokenize(CharSequence, TokenSpans).
+    public void tokenize(TokenSpans words, List<String> outputTokens) {
+        int[] ids = new int[0];
+        for (int w = 0; w < words.count(); w++) {
+            int start = words.start(w);
+            int length = words.end(w) - start;
+            if (words.fixedIds[w] != Vocab.NO_ID) {
+                outputTokens.add(words.token(w));
+                continue;
+            }
+            if (length > maxInputCharsPerWord) {
+                outputTokens.add(unkToken);
+                continue;
+            }
+            if (ids.length < length) {
+                ids = new int[length];
+            }
+            int count = wordpieceIds(words.chars(), start, start + length, ids, 0);
+            if (count < 0) {
+                outputTokens.add(unkToken);
+                continue;
+            }
+            for (int i = 0; i < count; i++) {
+                outputTokens.add(vocab.token(ids[i]));
+            }
+        }
+    }
+
+    // Writes the ids of every word span into out from outPos and returns how many were written.
+    // out needs room for words.length() ids, as every piece covers at least one char.
+    public int tokenizeToIds(TokenSpans words, int[] out, int outPos) {
+        return tokenizeToIds(words, out, outPos, null);
+    }
+
+    // Same, consulting and filling cache (when not null) per word before running the trie.
+    public int tokenizeToIds(TokenSpans words, int[] out, int outPos, WordpieceCache cache) {
+        return tokenizeToIds(words, out, outPos, cache, null, null);
+    }
+
+    // Same, and when starts/ends are not null also writes, at the same indices as the ids, the
+    // [start, end) range of the original input that each id covers. Spans of added tokens
+    // become their fixed id without WordPiece or the cache.
+    public int tokenizeToIds(TokenSpans words, int[] out, int outPos, WordpieceCache cache,
+                             int[] starts, int[] ends) {
+        words.unknownWords = 0;
+        words.overlongWords = 0;
+        words.cacheHits = 0;
+        words.cacheLookups = 0;
+        return tokenizeToIds(words, 0, words.count(), out, outPos, cache, starts, ends);
+    }
+
+    // Same over the spans [fromWord, toWord) only, adding to the counts in words instead of
+    // replacing them, so a text can be run through a few words at a time.
+    int tokenizeToIds(TokenSpans words, int fromWord, int toWord, int[] out, int outPos, WordpieceCache cache,
+                      int[] starts, int[] ends) {
+        char[] chars = words.chars();
+        int pos = outPos;
+        int unknown = 0;
+        int overlong = 0;
+        int hits = 0;
+        int fixed = 0;
+        for (int w = fromWord; w < toWord; w++) {
+            int start = words.start(w);
+            int end = words.end(w);
+            int count = -1;
+            if (words.fixedIds[w] != Vocab.NO_ID) {
+                out[pos] = words.fixedIds[w];
+                count = 1;
+                fixed++;
+            } else if (end - start <= maxInputCharsPerWord) {
+                int[] cached = cache != null ? cache.get(chars, start, end) : null;
+                if (cached != null) {
+                    System.arraycopy(cached, 0, out, pos, cached.length);
+                    count = cached.length;
+                    hits++;
+                } else {
+                    count = wordpieceIds(chars, start, end, out, pos);
+                    if (count < 0) {
+                        out[pos] = unkId;
+                        count = 1;
+                    }
+                    if (cache != null) {
+                        cache.put(chars, start, end, out, pos, count);
+                    }
+                }
+                if (count == 1 && out[pos] == unkId) {
+                    unknown++;
+                }
+            } else {
+                out[pos] = unkId;
+                count = 1;
+                unknown++;
+                overlong++;
+            }
+            if (starts != null) {
+                recordOffsets(words, w, out, pos, count, starts, ends);
+            }
+            pos += count;
+        }
+        words.unknownWords += unknown;
+        words.overlongWords += overlong;
+        words.cacheHits += hits;
+        words.cacheLookups += cache != null ? toWord - fromWord - overlong - fixed : 0;
+        return pos - outPos;
+    }
+
+    // Index in words.chars() just past the first `pieces` of the ids span w was split into,
+    // which start at ids[pos].
+    int piecesEnd(TokenSpans words, int w, int[] ids, int pos, int pieces) {
+        int end = words.start(w);
+        for (int k = 0; k < pieces; k++) {
+            end += vocab.tokenLength(ids[pos + k]) - (k == 0 ? 0 : 2);
+        }
+        return Math.min(end, words.end(w));
+    }
+
+    // Piece boundaries follow from the ids: the first piece spans its token's length and every
+    // later one its length minus the "##".
+    private void recordOffsets(TokenSpans words, int w, int[] ids, int pos, int count, int[] starts, int[] ends) {
+        int start = words.start(w);
+        int end = words.end(w);
+        if (count == 1 && (ids[pos] == unkId || words.fixedIds[w] != Vocab.NO_ID)) {
+            starts[pos] = words.sourceStart(start);
+            ends[pos] = words.sourceEnd(end - 1);
+            return;
+        }
+        int piece = start;
+        for (int k = 0; k < count; k++) {
+            int length = vocab.tokenLength(ids[pos + k]) - (k == 0 ? 0 : 2);
+            int pieceEnd = k == count - 1 ? end : Math.min(end, piece + length);
+            starts[pos + k] = words.sourceStart(piece);
+            ends[pos + k] = words.sourceEnd(pieceEnd - 1);
+            piece = pieceEnd;
+        }
+    }
+
+    // Greedy longest-match-first over chars[start, end). Writes the vocab ids of the pieces into
+    // out from outPos (out needs room for end - start ids) and returns how many were written,
+    // or -1 when the word cannot be covered by the vocab.
+    int wordpieceIds(char[] chars, int start, int end, int[] out, int outPos) {
+        int count = 0;
+        int pos = start;
+        while (pos < end) {
+            int node = pos == start ? trie.wordRoot() : trie.suffixRoot();
+            int matchEnd = -1;
+            int matchId = WordpieceTrie.NO_TOKEN;
+            for (int i = pos; i < end; i++) {
+                node = trie.child(node, chars[i]);
+                if (node == WordpieceTrie.NO_NODE) {
+                    break;
+                }
+                int id = trie.tokenId(node);
+                if (id != WordpieceTrie.NO_TOKEN) {
+                    matchEnd = i + 1;
+                    matchId = id;
+                }
+            }
+            if (matchEnd < 0) {
+                return -1;
+            }
+            out[outPos + count++] = matchId;
+            pos = matchEnd;
+        }
+        return count;
+    }
+
+}
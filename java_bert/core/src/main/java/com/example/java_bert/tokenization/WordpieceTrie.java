@@ -0,0 +1,131 @@
+package com.example.java_bert.tokenization;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+// Prefix trie over the vocab stored as flat arrays: the edges of a node are a sorted run of
+// edgeChars/edgeTargets starting at edgeStart[node]. Every token is inserted literally from the
+// word root, so the node reached by "##" doubles as the root for continuation pieces.
+public class WordpieceTrie {
+    static final int NO_NODE = -1;
+    static final int NO_TOKEN = -1;
+
+    private static final int WORD_ROOT = 0;
+
+    final int[] edgeStart;
+    final char[] edgeChars;
+    final int[] edgeTargets;
+    final int[] tokenIds;
+    final int suffixRoot;
+
+    WordpieceTrie(int[] edgeStart, char[] edgeChars, int[] edgeTargets, int[] tokenIds, int suffixRoot) {
+        this.edgeStart = edgeStart;
+        this.edgeChars = edgeChars;
+        this.edgeTargets = edgeTargets;
+        this.tokenIds = tokenIds;
+        this.suffixRoot = suffixRoot;
+    }
+
+    public WordpieceTrie(Map<String, Integer> vocab) {
+        this(new Vocab(vocab));
+    }
+
+    public WordpieceTrie(Vocab vocab) {
+        List<String> live = new ArrayList<>(vocab.size());
+        for (int id = 0; id < vocab.capacity(); id++) {
+            if (vocab.contains(id)) {
+                live.add(vocab.token(id));
+            }
+        }
+        String[] tokens = live.toArray(new String[0]);
+        Arrays.sort(tokens);
+
+        int capacity = 1;
+        for (String token : tokens) {
+            capacity += token.length();
+        }
+        int[] starts = new int[capacity + 1];
+        char[] chars = new char[capacity];
+        int[] targets = new int[capacity];
+        int[] ids = new int[capacity];
+        Arrays.fill(ids, NO_TOKEN);
+
+        // Breadth-first over ranges of the sorted tokens that share a prefix of length depth[node].
+        int[] rangeLo = new int[capacity];
+        int[] rangeHi = new int[capacity];
+        int[] depth = new int[capacity];
+        rangeHi[WORD_ROOT] = tokens.length;
+        int nodeCount = 1;
+        int edgeCount = 0;
+        for (int node = 0; node < nodeCount; node++) {
+            starts[node] = edgeCount;
+            int lo = rangeLo[node];
+            int hi = rangeHi[node];
+            int d = depth[node];
+            if (lo < hi && tokens[lo].length() == d) {
+                ids[node] = vocab.id(tokens[lo]);
+                lo++;
+            }
+            while (lo < hi) {
+                char c = tokens[lo].charAt(d);
+                int next = lo + 1;
+                while (next < hi && tokens[next].charAt(d) == c) {
+                    next++;
+                }
+                rangeLo[nodeCount] = lo;
+                rangeHi[nodeCount] = next;
+                depth[nodeCount] = d + 1;
+                chars[edgeCount] = c;
+                targets[edgeCount] = nodeCount;
+                edgeCount++;
+                nodeCount++;
+                lo = next;
+            }
+        }
+        starts[nodeCount] = edgeCount;
+
+        this.edgeStart = Arrays.copyOf(starts, nodeCount + 1);
+        this.edgeChars = Arrays.copyOf(chars, edgeCount);
+        this.edgeTargets = Arrays.copyOf(targets, edgeCount);
+        this.tokenIds = Arrays.copyOf(ids, nodeCount);
+        this.suffixRoot = child(child(WORD_ROOT, '#'), '#');
+    }
+
+    public int wordRoot() {
+        return WORD_ROOT;
+    }
+
+    public int suffixRoot() {
+        return suffixRoot;
+    }
+
+    public int child(int node, char c) {
+        if (node < 0) {
+            return NO_NODE;
+        }
+        int lo = edgeStart[node];
+        int hi = edgeStart[node + 1] - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            char m = edgeChars[mid];
+            if (m < c) {
+                lo = mid + 1;
+            } else if (m > c) {
+                hi = mid - 1;
+            } else {
+                return edgeTargets[mid];
+            }
+        }
+        return NO_NODE;
+    }
+
+    public int tokenId(int node) {
+        return tokenIds[node];
+    }
+
+    public int nodeCount() {
+        return tokenIds.length;
+    }
+}
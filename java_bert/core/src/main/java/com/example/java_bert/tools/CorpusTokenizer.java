@@ -0,0 +1,382 @@
+package com.example.java_bert.tools;
+
+import com.example.java_bert.tokenization.BertTokenizer;
+import com.example.java_bert.tokenization.TokenizerArtifact;
+import com.example.java_bert.tokenization.Vocab;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Pre-tokenizes text corpora into binary shards of token ids:
+//
+//   CorpusTokenizer [--lower] [--threads N] [--chunk-mb N] [--dtype int32|uint16]
+//                   <vocab> <outDir> <input>...
+//
+// Every non-empty line of the UTF-8 inputs is one record, encoded as [CLS] ids [SEP]. Inputs are
+// memory-mapped and cut at line boundaries into chunks of about --chunk-mb; each chunk is
+// tokenized on its own thread straight from the mapped bytes and becomes one shard file
+// (little endian):
+//
+//   int magic, int version, int bytesPerToken, int reserved, long records, long tokens,
+//   int32/uint16[tokens] ids, long[records + 1] offsets (record i is ids[offsets[i], offsets[i + 1]))
+//
+// The chunk plan is written to manifest.tsv first and shards appear under their final name only
+// once complete, so re-running the same command resumes after the last complete shards.
+public final class CorpusTokenizer {
+    static final int MAGIC = 0x48535442; // "BTSH" read little endian
+    static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    private static final int WRITE_BUFFER = 1 << 20;
+    private static final long REPORT_EVERY_MILLIS = 5000;
+    private static final long PROGRESS_BYTES = 1 << 20;
+
+    private final BertTokenizer tokenizer;
+    private final Path outDir;
+    private final boolean uint16;
+    private final AtomicLong bytesDone = new AtomicLong();
+    private final AtomicLong recordsDone = new AtomicLong();
+    private final AtomicLong tokensDone = new AtomicLong();
+
+    private CorpusTokenizer(BertTokenizer tokenizer, Path outDir, boolean uint16) {
+        this.tokenizer = tokenizer;
+        this.outDir = outDir;
+        this.uint16 = uint16;
+    }
+
+    public static void main(String[] args) throws Exception {
+        boolean lower = false;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long chunkBytes = 64L << 20;
+        boolean uint16 = false;
+        int i = 0;
+        try {
+            for (; i < args.length && args[i].startsWith("--"); i++) {
+                switch (args[i]) {
+                    case "--lower":
+                        lower = true;
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(args[++i]);
+                        break;
+                    case "--chunk-mb":
+                        chunkBytes = Long.parseLong(args[++i]) << 20;
+                        break;
+                    case "--dtype":
+                        uint16 = parseDtype(args[++i]);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+        } catch (RuntimeException e) {
+            usage(e.getMessage());
+        }
+        if (args.length - i < 3 || threads < 1 || chunkBytes < 1) {
+            usage(null);
+        }
+        Path vocab = Paths.get(args[i]);
+        Path outDir = Paths.get(args[i + 1]);
+        List<Path> inputs = new ArrayList<>();
+        for (int k = i + 2; k < args.length; k++) {
+            inputs.add(Paths.get(args[k]));
+        }
+
+        TokenizerArtifact artifact = TokenizerArtifact.load(vocab.toString());
+        if (uint16 && !fitsUint16(artifact.getVocab())) {
+            usage("--dtype uint16 cannot hold ids up to " + (artifact.getVocab().capacity() - 1)
+                    + "; use --dtype int32");
+        }
+        BertTokenizer tokenizer = new BertTokenizer(artifact, lower);
+        String config = String.format(Locale.ROOT, "# vocab=%s lower=%b dtype=%s chunkBytes=%d",
+                vocab.toAbsolutePath(), lower, uint16 ? "uint16" : "int32", chunkBytes);
+        List<Chunk> chunks = plan(inputs, chunkBytes);
+        Files.createDirectories(outDir);
+        writeOrCheckManifest(outDir, config, chunks);
+        new CorpusTokenizer(tokenizer, outDir, uint16).run(chunks, threads);
+    }
+
+    private static boolean parseDtype(String dtype) {
+        if (dtype.equals("uint16")) {
+            return true;
+        }
+        if (dtype.equals("int32")) {
+            return false;
+        }
+        throw new IllegalArgumentException("--dtype must be int32 or uint16: " + dtype);
+    }
+
+    // Every id written is a line number of the vocab, so capacity() bounds them; size() does not
+    // when lines repeat.
+    static boolean fitsUint16(Vocab vocab) {
+        return vocab.capacity() - 1 <= 0xFFFF;
+    }
+
+    private static void usage(String error) {
+        if (error != null) {
+            System.err.println(error);
+        }
+        System.err.println("Usage: CorpusTokenizer [--lower] [--threads N] [--chunk-mb N] [--dtype int32|uint16]"
+                + " <vocab> <outDir> <input>...");
+        System.exit(2);
+    }
+
+    private void run(List<Chunk> chunks, int threads) throws IOException, InterruptedException {
+        List<Chunk> pending = new ArrayList<>();
+        long resumedBytes = 0;
+        for (Chunk chunk : chunks) {
+            if (Files.exists(outDir.resolve(chunk.shardName()))) {
+                resumedBytes += chunk.end - chunk.start;
+            } else {
+                pending.add(chunk);
+            }
+        }
+        long totalBytes = 0;
+        for (Chunk chunk : pending) {
+            totalBytes += chunk.end - chunk.start;
+        }
+        if (pending.size() < chunks.size()) {
+            System.out.printf(Locale.ROOT, "Resuming: %d of %d shards already complete (%s)%n",
+                    chunks.size() - pending.size(), chunks.size(), megabytes(resumedBytes));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long started = System.nanoTime();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Chunk chunk : pending) {
+                futures.add(executor.submit(() -> {
+                    writeShard(chunk);
+                    return null;
+                }));
+            }
+            int done = 0;
+            for (Future<?> future : futures) {
+                while (true) {
+                    try {
+                        future.get(REPORT_EVERY_MILLIS, TimeUnit.MILLISECONDS);
+                        done++;
+                        break;
+                    } catch (TimeoutException e) {
+                        report("Progress", done, pending.size(), totalBytes, started);
+                    }
+                }
+            }
+        } catch (ExecutionException e) {
+            executor.shutdownNow();
+            throw new IOException("Tokenizing a chunk failed", e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+        report("Done", pending.size(), pending.size(), totalBytes, started);
+    }
+
+    private void report(String label, int shardsDone, int shards, long totalBytes, long started) {
+        double seconds = Math.max(1e-9, (System.nanoTime() - started) / 1e9);
+        long bytes = bytesDone.get();
+        System.out.printf(Locale.ROOT,
+                "%s: %d/%d shards, %s of %s (%.1f%%), %d records, %d tokens, %.1f MB/s, %.0f tokens/s%n",
+                label, shardsDone, shards, megabytes(bytes), megabytes(totalBytes),
+                totalBytes == 0 ? 100.0 : 100.0 * bytes / totalBytes, recordsDone.get(), tokensDone.get(),
+                bytes / seconds / (1 << 20), tokensDone.get() / seconds);
+    }
+
+    private static String megabytes(long bytes) {
+        return String.format(Locale.ROOT, "%.1f MB", bytes / (double) (1 << 20));
+    }
+
+    // Tokenizes one chunk into <shard>.tmp and renames it into place once complete. Ids go out
+    // through one reused write buffer; only the record offsets are held in memory.
+    private void writeShard(Chunk chunk) throws IOException {
+        Path tmp = outDir.resolve(chunk.shardName() + ".tmp");
+        int bytesPerToken = uint16 ? 2 : 4;
+        long[] offsets = new long[1024];
+        int records = 0;
+        long tokens = 0;
+        int[] ids = new int[1024];
+        // Published to the shared counters about once per PROGRESS_BYTES so they stay uncontended.
+        long unreportedBytes = 0;
+        long unreportedRecords = 0;
+        long unreportedTokens = 0;
+        ByteBuffer out = ByteBuffer.allocateDirect(WRITE_BUFFER).order(ByteOrder.LITTLE_ENDIAN);
+        try (FileChannel input = FileChannel.open(chunk.file, StandardOpenOption.READ);
+             FileChannel shard = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer text = input.map(FileChannel.MapMode.READ_ONLY, chunk.start, chunk.end - chunk.start);
+            int length = text.limit();
+            shard.position(HEADER_BYTES);
+            int lineStart = 0;
+            while (lineStart < length) {
+                int lineEnd = lineStart;
+                while (lineEnd < length && text.get(lineEnd) != '\n') {
+                    lineEnd++;
+                }
+                int next = lineEnd + 1;
+                if (lineEnd > lineStart && text.get(lineEnd - 1) == '\r') {
+                    lineEnd--;
+                }
+                if (lineEnd > lineStart) {
+                    text.limit(lineEnd).position(lineStart);
+                    int count = tokenizer.encodeUtf8(text, ids, 0);
+                    if (count < 0) {
+                        ids = new int[Math.max(-count, ids.length * 2)];
+                        count = tokenizer.encodeUtf8(text, ids, 0);
+                    }
+                    text.limit(length);
+                    for (int k = 0; k < count; k++) {
+                        if (out.remaining() < bytesPerToken) {
+                            flush(out, shard);
+                        }
+                        putId(out, ids[k]);
+                    }
+                    if (records + 1 == offsets.length) {
+                        offsets = Arrays.copyOf(offsets, offsets.length * 2);
+                    }
+                    tokens += count;
+                    offsets[++records] = tokens;
+                    unreportedRecords++;
+                    unreportedTokens += count;
+                }
+                unreportedBytes += Math.min(next, length) - lineStart;
+                lineStart = next;
+                if (unreportedBytes >= PROGRESS_BYTES || lineStart >= length) {
+                    bytesDone.addAndGet(unreportedBytes);
+                    recordsDone.addAndGet(unreportedRecords);
+                    tokensDone.addAndGet(unreportedTokens);
+                    unreportedBytes = 0;
+                    unreportedRecords = 0;
+                    unreportedTokens = 0;
+                }
+            }
+            for (int r = 0; r <= records; r++) {
+                if (out.remaining() < 8) {
+                    flush(out, shard);
+                }
+                out.putLong(offsets[r]);
+            }
+            flush(out, shard);
+            out.putInt(MAGIC).putInt(VERSION).putInt(bytesPerToken).putInt(0).putLong(records).putLong(tokens);
+            out.flip();
+            while (out.hasRemaining()) {
+                shard.write(out, HEADER_BYTES - out.remaining());
+            }
+            shard.force(false);
+        }
+        Files.move(tmp, outDir.resolve(chunk.shardName()), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private void putId(ByteBuffer out, int id) {
+        if (uint16) {
+            if (id > 0xFFFF) {
+                throw new IllegalStateException("Token id " + id + " does not fit uint16; use --dtype int32");
+            }
+            out.putShort((short) id);
+        } else {
+            out.putInt(id);
+        }
+    }
+
+    private static void flush(ByteBuffer out, FileChannel channel) throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        out.clear();
+    }
+
+    // Cuts every input into chunks of about chunkBytes ending just after a '\n' (or at the end of
+    // the file). The plan depends only on the inputs and chunkBytes, so a re-run finds the same
+    // shards.
+    static List<Chunk> plan(List<Path> inputs, long chunkBytes) throws IOException {
+        List<Chunk> chunks = new ArrayList<>();
+        ByteBuffer window = ByteBuffer.allocate(64 * 1024);
+        for (Path file : inputs) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                long size = channel.size();
+                long start = 0;
+                while (start < size) {
+                    long end = Math.min(size, start + chunkBytes);
+                    while (end < size) {
+                        window.clear();
+                        int read = channel.read(window, end);
+                        int newline = -1;
+                        for (int k = 0; k < read && newline < 0; k++) {
+                            if (window.get(k) == '\n') {
+                                newline = k;
+                            }
+                        }
+                        if (newline >= 0) {
+                            end += newline + 1;
+                            break;
+                        }
+                        end = Math.min(size, end + Math.max(read, 1));
+                    }
+                    if (end - start > Integer.MAX_VALUE) {
+                        throw new IOException("Line too long to map near offset " + start + " of " + file);
+                    }
+                    chunks.add(new Chunk(chunks.size(), file, start, end));
+                    start = end;
+                }
+            }
+        }
+        return chunks;
+    }
+
+    // Resuming is only safe with the same inputs and settings, so an existing manifest must match.
+    private static void writeOrCheckManifest(Path outDir, String config, List<Chunk> chunks) throws IOException {
+        StringBuilder sb = new StringBuilder(config).append('\n');
+        for (Chunk chunk : chunks) {
+            sb.append(chunk.shardName()).append('\t').append(chunk.file.toAbsolutePath()).append('\t')
+                    .append(chunk.start).append('\t').append(chunk.end).append('\n');
+        }
+        byte[] manifest = sb.toString().getBytes(StandardCharsets.UTF_8);
+        Path path = outDir.resolve("manifest.tsv");
+        if (Files.exists(path)) {
+            if (!Arrays.equals(manifest, Files.readAllBytes(path))) {
+                throw new IOException(path + " describes a different job; use an empty output directory");
+            }
+            return;
+        }
+        Path tmp = outDir.resolve("manifest.tsv.tmp");
+        Files.write(tmp, manifest);
+        Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    static final class Chunk {
+        final int index;
+        final Path file;
+        final long start;
+        final long end;
+
+        Chunk(int index, Path file, long start, long end) {
+            this.index = index;
+            this.file = file;
+            this.start = start;
+            this.end = end;
+        }
+
+        String shardName() {
+            return String.format(Locale.ROOT, "shard-%05d.bin", index);
+        }
+    }
+}
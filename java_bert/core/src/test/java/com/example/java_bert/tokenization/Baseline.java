@@ -0,0 +1,201 @@
+package com.example.java_bert.tokenization;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// The tokenizer as it was before the span, trie and table rewrites, kept String-based and slow on
+// purpose so the tests can compare the current code against it.
+final class Baseline {
+    private Baseline() {
+    }
+
+    // Clean, isolate CJK chars, split on whitespace, lowercase and strip accents unless the word
+    // is never-split, then split on punctuation; each step a new String, one UTF-16 char at a time.
+    static List<String> basicTokenize(String text, boolean doLowerCase, List<String> neverSplit,
+                                      boolean tokenizeChineseChars) {
+        if (neverSplit == null) {
+            neverSplit = new ArrayList<>();
+        }
+        text = cleanText(text);
+        if (tokenizeChineseChars) {
+            text = tokenizeChineseChars(text);
+        }
+        List<String> splitTokens = new ArrayList<>();
+        for (String token : whitespaceTokenize(text)) {
+            String processedToken = token;
+            if (doLowerCase && !neverSplit.contains(token)) {
+                processedToken = runStripAccents(token.toLowerCase(Locale.ROOT));
+            }
+            splitTokens.addAll(runSplitOnPunc(processedToken, neverSplit));
+        }
+        return splitTokens;
+    }
+
+    static String cleanText(String text) {
+        StringBuilder output = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == 0 || c == 0xFFFD || isControl(c)) {
+                continue;
+            }
+            output.append(isWhitespace(c) ? ' ' : c);
+        }
+        return output.toString();
+    }
+
+    static String tokenizeChineseChars(String text) {
+        StringBuilder output = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (isChineseChar(c)) {
+                output.append(' ').append(c).append(' ');
+            } else {
+                output.append(c);
+            }
+        }
+        return output.toString();
+    }
+
+    static String runStripAccents(String token) {
+        token = Normalizer.normalize(token, Normalizer.Form.NFD);
+        StringBuilder output = new StringBuilder();
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (Character.getType(c) != Character.NON_SPACING_MARK) {
+                output.append(c);
+            }
+        }
+        return output.toString();
+    }
+
+    static List<String> runSplitOnPunc(String token, List<String> neverSplit) {
+        List<String> output = new ArrayList<>();
+        if (neverSplit.contains(token)) {
+            output.add(token);
+            return output;
+        }
+        StringBuilder str = new StringBuilder();
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (isPunctuation(c)) {
+                if (str.length() > 0) {
+                    output.add(str.toString());
+                    str.setLength(0);
+                }
+                output.add(Character.toString(c));
+            } else {
+                str.append(c);
+            }
+        }
+        if (str.length() > 0) {
+            output.add(str.toString());
+        }
+        return output;
+    }
+
+    // The original char checks, taking code points so supplementary ones can be asked about too.
+    static boolean isPunctuation(int cp) {
+        if ((cp >= 33 && cp <= 47) || (cp >= 58 && cp <= 64) || (cp >= 91 && cp <= 96) || (cp >= 123 && cp <= 126)) {
+            return true;
+        }
+        switch (Character.getType(cp)) {
+            case Character.CONNECTOR_PUNCTUATION:
+            case Character.DASH_PUNCTUATION:
+            case Character.END_PUNCTUATION:
+            case Character.FINAL_QUOTE_PUNCTUATION:
+            case Character.INITIAL_QUOTE_PUNCTUATION:
+            case Character.OTHER_PUNCTUATION:
+            case Character.START_PUNCTUATION:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    static boolean isWhitespace(int cp) {
+        return cp == ' ' || cp == '\t' || cp == '\n' || cp == '\r'
+                || Character.getType(cp) == Character.SPACE_SEPARATOR;
+    }
+
+    // Type 7 is ENCLOSING_MARK; the original compared against DIRECTIONALITY_COMMON_NUMBER_SEPARATOR,
+    // which has the same value.
+    static boolean isControl(int cp) {
+        if (cp == '\t' || cp == '\n' || cp == '\r') {
+            return false;
+        }
+        switch (Character.getType(cp)) {
+            case Character.CONTROL:
+            case Character.ENCLOSING_MARK:
+            case Character.FORMAT:
+            case Character.PRIVATE_USE:
+            case Character.SURROGATE:
+            case Character.UNASSIGNED:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    static boolean isChineseChar(int cp) {
+        return (cp >= 0x4E00 && cp <= 0x9FFF) || (cp >= 0x3400 && cp <= 0x4DBF) || (cp >= 0x20000 && cp <= 0x2A6DF)
+                || (cp >= 0x2A700 && cp <= 0x2B73F) || (cp >= 0x2B740 && cp <= 0x2B81F)
+                || (cp >= 0x2B820 && cp <= 0x2CEAF) || (cp >= 0xF900 && cp <= 0xFAFF)
+                || (cp >= 0x2F800 && cp <= 0x2FA1F);
+    }
+
+    // Greedy longest-match-first by probing every substring, "##" prefixed after the first piece.
+    static List<String> wordpiece(Map<String, Integer> vocab, String text, String unkToken,
+                                  int maxInputCharsPerWord) {
+        List<String> outputTokens = new ArrayList<>();
+        for (String token : whitespaceTokenize(text)) {
+            if (token.length() > maxInputCharsPerWord) {
+                outputTokens.add(unkToken);
+                continue;
+            }
+            List<String> subTokens = new ArrayList<>();
+            int start = 0;
+            boolean isBad = false;
+            while (start < token.length()) {
+                int end = token.length();
+                String curSubstr = null;
+                while (start < end) {
+                    String substr = token.substring(start, end);
+                    if (start > 0) {
+                        substr = "##" + substr;
+                    }
+                    if (vocab.containsKey(substr)) {
+                        curSubstr = substr;
+                        break;
+                    }
+                    end--;
+                }
+                if (curSubstr == null) {
+                    isBad = true;
+                    break;
+                }
+                subTokens.add(curSubstr);
+                start = end;
+            }
+            if (isBad) {
+                outputTokens.add(unkToken);
+            } else {
+                outputTokens.addAll(subTokens);
+            }
+        }
+        return outputTokens;
+    }
+
+    static List<String> whitespaceTokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        text = text.trim();
+        if (!text.isEmpty()) {
+            for (String token : text.split("\\s+")) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.java_bert.tokenization;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class BasicTokenizerTest {
+    // Escaped so the test does not depend on the source encoding.
+    private static final String[] WORDS = {
+            "the", "playing", "tokenization", "Hello", "WORLD", "unbelievable", "Mister", "Aziz,", "Colombo",
+            "14", "BERT", "xyzzy", "[SEP]", "[CLS]", "[sep]", "e-mail", "it's", "https://example.com/a?b=c&d=e",
+            "ID-12345-XYZ", "...", "!!", "$%^", "x y", " ", "\t", "\n", "\r\n", "\u0000", "\u0007", "\uFFFD",
+            "\u200B", "\u00A0", "\u3000", "\u0301", "\u20DD", "\uE000", "\u0378",
+            "caf\u00E9", "na\u00EFve", "Stra\u00DFe", "\u00C9COLE", "\u03A3\u039F\u03A6\u039F\u03A3",
+            "\u0130stanbul", "\u1E9E", "\u4E2D\u56FD\u4EBA", "\u65E5\u672C\u8A9E\u3067\u3059",
+            "\uD55C\uAD6D\uC5B4", "\u2014", "\u201Cquoted\u201D", "\u00BD", "\uFB01", "\u03A9", "\u0451\u0401"};
+
+    private static final List<String> NEVER_SPLIT = Arrays.asList("[SEP]", "[CLS]", "e-mail", "it's", "[sep]");
+
+    @Test
+    void matchesTheStringPipeline() {
+        List<String> corpus = corpus(3000, 11);
+        for (boolean lower : new boolean[]{false, true}) {
+            for (boolean cjk : new boolean[]{false, true}) {
+                for (List<String> neverSplit : Arrays.asList(null, NEVER_SPLIT)) {
+                    BasicTokenizer tokenizer = new BasicTokenizer(lower, neverSplit, cjk);
+                    for (String text : corpus) {
+                        assertEquals(Baseline.basicTokenize(text, lower, neverSplit, cjk), tokenizer.tokenize(text),
+                                "lower " + lower + ", cjk " + cjk + ", neverSplit " + neverSplit + ": " + text);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void spansPointBackIntoTheSource() {
+        BasicTokenizer tokenizer = new BasicTokenizer(false, NEVER_SPLIT, true);
+        TokenSpans spans = new TokenSpans();
+        for (String text : corpus(500, 5)) {
+            // One TokenSpans for every text, as the encode paths reuse theirs.
+            tokenizer.tokenize(text, spans);
+            List<String> tokens = new ArrayList<>();
+            for (int i = 0; i < spans.count(); i++) {
+                String token = spans.token(i);
+                tokens.add(token);
+                int from = spans.sourceStart(spans.start(i));
+                int to = spans.sourceEnd(spans.end(i) - 1);
+                assertEquals(token, Baseline.cleanText(text.substring(from, to)), text);
+            }
+            assertEquals(tokenizer.tokenize(text), tokens);
+        }
+    }
+
+    @Test
+    void neverSplitWordsStayWhole() {
+        BasicTokenizer cased = new BasicTokenizer(false, NEVER_SPLIT, true);
+        assertEquals(List.of("[SEP]", "e-mail", "it's", "[", "CLS", "]", "x", "[SEP]", "."),
+                cased.tokenize("[SEP] e-mail it's [CLS]x [SEP] ."));
+        // Only exact words are kept: never-split is checked before lowercasing.
+        BasicTokenizer uncased = new BasicTokenizer(true, NEVER_SPLIT, true);
+        assertEquals(List.of("[SEP]", "[sep]", "[", "sep", "]", "-", "e-mail"),
+                uncased.tokenize("[SEP] [sep] [Sep]- e-mail"));
+    }
+
+    @Test
+    void controlCharsAreDroppedAndWhitespaceSplits() {
+        BasicTokenizer tokenizer = new BasicTokenizer(false, null, true);
+        assertEquals(List.of("abcde", "f", "g"), tokenizer.tokenize("a\u0000b\uFFFDc\u200Bd\u0007e\u00A0f\u3000g"));
+        assertEquals(List.of("x", "y", "z"), tokenizer.tokenize("\r\nx\ty \u2009z\r\n"));
+        // Line and paragraph separators are not whitespace to BERT, nor control chars.
+        assertEquals(List.of("y\u2028\u2029z"), tokenizer.tokenize("y\u2028\u2029z"));
+        assertEquals(List.of(), tokenizer.tokenize(" \t\u0000\r\n\u00A0"));
+    }
+
+    // Random texts from WORDS and random BMP chars outside the surrogate range; supplementary
+    // code points are left out because their handling changed on purpose (see CharClassTest).
+    static List<String> corpus(int count, long seed) {
+        Random random = new Random(seed);
+        List<String> corpus = new ArrayList<>();
+        corpus.add("");
+        corpus.add("   ");
+        corpus.add("Mister Aziz, Layards Broadway, Colombo 14");
+        for (int i = 0; i < count; i++) {
+            StringBuilder text = new StringBuilder();
+            int words = random.nextInt(30);
+            for (int w = 0; w < words; w++) {
+                if (random.nextInt(8) == 0) {
+                    int length = 1 + random.nextInt(12);
+                    for (int k = 0; k < length; k++) {
+                        int c = random.nextInt(4) == 0 ? random.nextInt(0x3000) : 'a' + random.nextInt(26);
+                        text.append((char) c);
+                    }
+                } else {
+                    text.append(WORDS[random.nextInt(WORDS.length)]);
+                }
+                text.append(random.nextInt(5) == 0 ? "" : " ");
+            }
+            corpus.add(text.toString());
+        }
+        return corpus;
+    }
+}
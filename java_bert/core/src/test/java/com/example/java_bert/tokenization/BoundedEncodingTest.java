@@ -0,0 +1,175 @@
+package com.example.java_bert.tokenization;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class BoundedEncodingTest {
+    private static final String VOCAB = String.join("\n",
+            "[PAD]", "[UNK]", "[CLS]", "[SEP]", "[MASK]",
+            "un", "##aff", "##able", "token", "##ization", "##s", "new", "york", "city", "cafe", "caf", "##e",
+            "\u4E2D", "\u56FD", "a", "b", "##b", ".", ",", "-");
+
+    private static final String[] WORDS = {
+            "unaffable", "tokenization", "tokens", "token", "New York", "New  York", "York City", "new", "york",
+            "caf\u00E9", "Cafe\u0301", "\u4E2D\u56FD", "xyzzy", "a", "ab", "abbbbbbb", ".", ",", "a-b", "<ent>",
+            "<e", "nt>", "\u0000", "\uD83D\uDE00", "\u00A0"};
+
+    private static final List<String> ADDED = List.of("New York", "<ent>");
+
+    @Test
+    void idsAreTheFullRowCutToTheBound() throws IOException {
+        Random random = new Random(23);
+        for (boolean lower : new boolean[]{false, true}) {
+            BertTokenizer tokenizer = tokenizer(lower);
+            for (int round = 0; round < 300; round++) {
+                String text = text(random, random.nextInt(round < 250 ? 12 : 400));
+                long[] full = tokenizer.encodeBatch(List.of(text))[0];
+                int[] ends = tokenizer.encodeWithOffsets(text).ends();
+                int[] byteEnds = tokenizer.encodeUtf8WithOffsets(utf8(text)).ends();
+                int step = full.length < 40 ? 1 : 1 + random.nextInt(full.length / 8);
+                for (int maxLen = 2; maxLen <= full.length + 2; maxLen += step) {
+                    check(tokenizer, text, maxLen, full, ends, byteEnds);
+                }
+                check(tokenizer, text, full.length, full, ends, byteEnds);
+                check(tokenizer, text, full.length - 1, full, ends, byteEnds);
+            }
+        }
+    }
+
+    @Test
+    void wordsAndAddedTokensAcrossTheLookAheadWindow() throws IOException {
+        BertTokenizer tokenizer = tokenizer(true);
+        // The added-token window is 256 chars; put the straddling token, and a long word that
+        // only ends past the window, at every offset around it.
+        for (int pad = 240; pad < 270; pad++) {
+            for (String tail : new String[]{"New York city", "<ent>s", "New\tYork", "tokenizationsssss ab",
+                    "a" + "b".repeat(40)}) {
+                String text = "a ".repeat(pad / 2) + (pad % 2 == 0 ? "" : "-") + tail + " un"
+                        + "aff".repeat(pad % 5);
+                long[] full = tokenizer.encodeBatch(List.of(text))[0];
+                int[] ends = tokenizer.encodeWithOffsets(text).ends();
+                int[] byteEnds = tokenizer.encodeUtf8WithOffsets(utf8(text)).ends();
+                for (int maxLen = full.length - 8; maxLen <= full.length + 1; maxLen++) {
+                    check(tokenizer, text, maxLen, full, ends, byteEnds);
+                }
+            }
+        }
+    }
+
+    @Test
+    void goldens() throws IOException {
+        BertTokenizer tokenizer = tokenizer(true);
+        String text = "unaffable New York tokens";
+        // [CLS] un ##aff ##able New York token ##s [SEP]
+        BoundedEncoding whole = tokenizer.encode(text, 8);
+        assertEquals(8, whole.size());
+        assertFalse(whole.truncated());
+        assertEquals(text.length(), whole.stopOffset());
+
+        // Cut inside unaffable: "unaff" is kept.
+        BoundedEncoding inWord = tokenizer.encode(text, 4);
+        assertArrayEquals(new long[]{2, 5, 6, 3}, inWord.ids());
+        assertTrue(inWord.truncated());
+        assertEquals(5, inWord.stopOffset());
+
+        // Cut right after the added token.
+        BoundedEncoding afterAdded = tokenizer.encode(text, 6);
+        assertTrue(afterAdded.truncated());
+        assertEquals("unaffable New York".length(), afterAdded.stopOffset());
+        assertEquals(tokenizer.encodeWithOffsets("New York").ids()[0], afterAdded.ids()[4]);
+
+        BoundedEncoding empty = tokenizer.encode(text, 2);
+        assertArrayEquals(new long[]{2, 3}, empty.ids());
+        assertTrue(empty.truncated());
+        assertEquals(0, empty.stopOffset());
+
+        BoundedEncoding none = tokenizer.encode("", 2);
+        assertFalse(none.truncated());
+        assertEquals(0, none.stopOffset());
+
+        assertThrows(IllegalArgumentException.class, () -> tokenizer.encode(text, 1));
+    }
+
+    // Checks every bounded entry point for text against the unbounded encodings of it.
+    private static void check(BertTokenizer tokenizer, String text, int maxLen, long[] full, int[] ends,
+                              int[] byteEnds) {
+        if (maxLen < 2) {
+            return;
+        }
+        int kept = Math.min(full.length - 2, maxLen - 2);
+        boolean truncated = kept < full.length - 2;
+        long[] expected = Arrays.copyOf(full, kept + 2);
+        expected[kept + 1] = full[full.length - 1];
+        int stop = !truncated ? text.length() : kept > 0 ? ends[kept - 1] : 0;
+        String where = "maxLen " + maxLen + ": " + text;
+
+        BoundedEncoding bounded = tokenizer.encode(text, maxLen);
+        assertArrayEquals(expected, bounded.ids(), where);
+        assertEquals(truncated, bounded.truncated(), where);
+        assertEquals(stop, bounded.stopOffset(), where);
+
+        // Through a StringBuilder too: nothing may depend on text being a String.
+        BoundedEncoding fromBuilder = tokenizer.encode(new StringBuilder(text), maxLen);
+        assertArrayEquals(expected, fromBuilder.ids(), where);
+        assertEquals(stop, fromBuilder.stopOffset(), where);
+
+        ByteBuffer buffer = utf8(text);
+        BoundedEncoding fromUtf8 = tokenizer.encodeUtf8(buffer, maxLen);
+        assertArrayEquals(expected, fromUtf8.ids(), where);
+        assertEquals(truncated, fromUtf8.truncated(), where);
+        assertEquals(!truncated ? buffer.limit() : kept > 0 ? byteEnds[kept - 1] : 3, fromUtf8.stopOffset(),
+                where);
+
+        SequenceBuffer out = SequenceBuffer.forCurrentThread();
+        tokenizer.encodeInto(text, maxLen, out);
+        assertEquals(expected.length, out.size(), where);
+        long[] ids = new long[out.size()];
+        out.copyIds(ids, 0);
+        assertArrayEquals(expected, ids, where);
+        assertEquals(truncated, out.truncated(), where);
+        assertEquals(stop, out.stopOffset(), where);
+        assertEquals(SequenceBuffer.NO_WORD, out.wordId(0));
+        assertEquals(SequenceBuffer.NO_WORD, out.wordId(out.size() - 1));
+        for (int i = 1; i < out.size() - 1; i++) {
+            assertEquals(0, out.typeId(i));
+            assertEquals(1, out.attentionMask(i));
+            int step = out.wordId(i) - (i == 1 ? -1 : out.wordId(i - 1));
+            assertTrue(step == 0 && i > 1 || step == 1, where);
+        }
+    }
+
+    private static String text(Random random, int words) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+            text.append(random.nextInt(6) == 0 ? "" : random.nextInt(10) == 0 ? "\t " : " ");
+        }
+        return text.toString();
+    }
+
+    // text's bytes from position 3 of a larger buffer.
+    private static ByteBuffer utf8(String text) {
+        ByteBuffer buffer = ByteBuffer.allocate(text.length() * 3 + 6);
+        buffer.position(3);
+        buffer.put(text.getBytes(StandardCharsets.UTF_8)).flip().position(3);
+        return buffer;
+    }
+
+    private static BertTokenizer tokenizer(boolean lower) throws IOException {
+        Vocab vocab = Vocab.load(new ByteArrayInputStream(VOCAB.getBytes(StandardCharsets.UTF_8)));
+        return new BertTokenizer(new TokenizerArtifact(vocab), lower, ADDED);
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.java_bert.tokenization;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.text.Normalizer;
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.jupiter.api.Test;
+
+class CaseFoldingTest {
+    @Test
+    void bmpCharsFoldLikeLowercaseThenStrip() {
+        for (int cp = 0; cp < 0x10000; cp++) {
+            char c = (char) cp;
+            // Control chars (which include U+FFFE and U+FFFF) never reach folding.
+            if (CharClass.of(cp) == CharClass.CONTROL) {
+                continue;
+            }
+            String lowered = String.valueOf(c).toLowerCase(Locale.ROOT);
+            String expected = Baseline.runStripAccents(lowered);
+            char folded = CaseFolding.fold(c);
+            String where = "U+" + Integer.toHexString(cp);
+            if (c == '\u03A3' || lowered.length() != 1 || expected.length() > 1) {
+                assertEquals(CaseFolding.UNMAPPED, folded, where);
+            } else {
+                assertEquals(expected.isEmpty() ? CaseFolding.DROPPED : expected.charAt(0), folded, where);
+            }
+        }
+    }
+
+    @Test
+    void supplementaryCodePointsFoldLikeLowercaseThenStrip() {
+        for (int cp = 0x10000; cp <= Character.MAX_CODE_POINT; cp++) {
+            if (CharClass.of(cp) == CharClass.CONTROL) {
+                continue;
+            }
+            String lowered = new String(Character.toChars(cp)).toLowerCase(Locale.ROOT);
+            String expected = Baseline.runStripAccents(lowered);
+            int folded = CaseFolding.foldSupplementary(cp);
+            String where = "U+" + Integer.toHexString(cp);
+            if (lowered.codePointCount(0, lowered.length()) != 1 || lowered.length() != 2
+                    || expected.codePointCount(0, expected.length()) > 1) {
+                assertEquals(CaseFolding.UNMAPPED_CODE_POINT, folded, where);
+            } else {
+                assertEquals(expected.isEmpty() ? CaseFolding.DROPPED_CODE_POINT : expected.codePointAt(0), folded,
+                        where);
+            }
+        }
+    }
+
+    @Test
+    void hangulJamoMatchNfd() {
+        for (char c = '\uAC00'; c <= '\uD7A3'; c++) {
+            String nfd = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD);
+            StringBuilder jamo = new StringBuilder();
+            for (int k = 0; k < 3; k++) {
+                char j = CaseFolding.hangulJamo(c, k);
+                if (j != 0) {
+                    jamo.append(j);
+                }
+            }
+            assertEquals(nfd, jamo.toString(), "U+" + Integer.toHexString(c));
+        }
+        assertTrue(CaseFolding.isHangulSyllable('\uAC00'));
+        assertFalse(CaseFolding.isHangulSyllable('\uD7A4'));
+    }
+
+    @Test
+    void stripAccentsMatchesNfdAndFilter() {
+        for (String text : BasicTokenizerTest.corpus(2000, 3)) {
+            for (String word : Baseline.whitespaceTokenize(text)) {
+                assertEquals(Baseline.runStripAccents(word), TokenizerUtils.runStripAccents(word), word);
+                String lowered = word.toLowerCase(Locale.ROOT);
+                assertEquals(Baseline.runStripAccents(lowered), TokenizerUtils.runStripAccents(lowered), lowered);
+            }
+        }
+    }
+
+    @Test
+    void uncasedGoldens() {
+        BasicTokenizer tokenizer = new BasicTokenizer(true, null, true);
+        String[][] cases = {
+                {"Caf\u00E9 na\u00EFve \u00C9COLE r\u00E9sum\u00E9 Cafe\u0301",
+                        "cafe", "naive", "ecole", "resume", "cafe"},
+                // Final sigma only at the end of a word, as String.toLowerCase decides it.
+                {"\u03A3\u039F\u03A6\u039F\u03A3 \u03A3 \u039F\u0394\u039F\u03A3.",
+                        "\u03C3\u03BF\u03C6\u03BF\u03C2", "\u03C3", "\u03BF\u03B4\u03BF\u03C2", "."},
+                {"\u0130stanbul D\u0130YARBAKIR", "istanbul", "diyarbakir"},
+                {"STRA\u1E9EE \u1E9E stra\u00DFe", "stra\u00DFe", "\u00DF", "stra\u00DFe"},
+                {"\uD55C\uAD6D\uC5B4 \uD14D\uC2A4\uD2B8",
+                        "\u1112\u1161\u11AB\u1100\u116E\u11A8\u110B\u1165",
+                        "\u1110\u1166\u11A8\u1109\u1173\u1110\u1173"},
+                {"\uFB01 \u00BD \u03A9 \u0401\u0451", "\uFB01", "\u00BD", "\u03C9", "\u0435\u0435"}};
+        for (String[] golden : cases) {
+            List<String> expected = List.of(golden).subList(1, golden.length);
+            assertEquals(expected, tokenizer.tokenize(golden[0]), golden[0]);
+            assertEquals(expected, Baseline.basicTokenize(golden[0], true, null, true), golden[0]);
+        }
+    }
+
+    @Test
+    void casedTextIsLeftAlone() {
+        BasicTokenizer tokenizer = new BasicTokenizer(false, null, true);
+        String text = "Caf\u00E9 \u03A3\u039F\u03A6\u039F\u03A3 \u0130stanbul STRA\u1E9EE \uD55C\uAD6D\uC5B4";
+        assertEquals(List.of("Caf\u00E9", "\u03A3\u039F\u03A6\u039F\u03A3", "\u0130stanbul", "STRA\u1E9EE",
+                "\uD55C\uAD6D\uC5B4"), tokenizer.tokenize(text));
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.java_bert.tokenization;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class CharClassTest {
+    // U+20000..U+20002 (CJK Extension B), U+1F600 (an emoji) and U+10100 (Aegean word separator, punctuation).
+    private static final String CJK_0 = "\uD840\uDC00";
+    private static final String CJK_1 = "\uD840\uDC01";
+    private static final String CJK_2 = "\uD840\uDC02";
+    private static final String EMOJI = "\uD83D\uDE00";
+    private static final String PUNCT = "\uD800\uDD00";
+
+    @Test
+    void everyCodePointIsClassedLikeTheOriginalChecks() {
+        for (int cp = 0; cp <= Character.MAX_CODE_POINT; cp++) {
+            byte expected;
+            if (cp == 0 || cp == 0xFFFD || Baseline.isControl(cp)) {
+                expected = CharClass.CONTROL;
+            } else if (Baseline.isWhitespace(cp)) {
+                expected = CharClass.WHITESPACE;
+            } else if (Baseline.isChineseChar(cp)) {
+                expected = CharClass.CJK;
+            } else if (Baseline.isPunctuation(cp)) {
+                expected = CharClass.PUNCTUATION;
+            } else {
+                expected = CharClass.OTHER;
+            }
+            if (CharClass.of(cp) != expected) {
+                assertEquals(expected, CharClass.of(cp), "U+" + Integer.toHexString(cp));
+            }
+        }
+    }
+
+    @Test
+    void supplementaryCodePointsAreKeptWhole() {
+        for (boolean lower : new boolean[]{false, true}) {
+            BasicTokenizer tokenizer = new BasicTokenizer(lower, null, true);
+            assertEquals(List.of("a", CJK_0, "b", CJK_1, CJK_2, EMOJI + "x"),
+                    tokenizer.tokenize("a" + CJK_0 + "b " + CJK_1 + CJK_2 + " " + EMOJI + "x"));
+            assertEquals(List.of("a", PUNCT, "b"), tokenizer.tokenize("a" + PUNCT + "b"));
+            // Lone surrogates are dropped like other control chars.
+            assertEquals(List.of("fg", "h"), tokenizer.tokenize("f\uD800g \uDC00h\uD800"));
+        }
+        BasicTokenizer noCjk = new BasicTokenizer(false, null, false);
+        assertEquals(List.of("a" + CJK_0 + "b"), noCjk.tokenize("a" + CJK_0 + "b"));
+    }
+
+    @Test
+    void stringUtilitiesHandleSurrogatePairs() {
+        assertEquals("a" + CJK_0 + "b c d", TokenizerUtils.cleanText("a" + CJK_0 + "b\u0000\uD800 c\td"));
+        assertEquals("a " + CJK_0 + " b", TokenizerUtils.tokenizeChineseChars("a" + CJK_0 + "b"));
+        assertEquals(List.of("a", PUNCT, "b"), TokenizerUtils.runSplitOnPunc("a" + PUNCT + "b", null));
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.java_bert.tokenization;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.LongBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class InputBatchTest {
+    private static final String VOCAB = String.join("\n",
+            "[PAD]", "[UNK]", "[CLS]", "[SEP]", "[MASK]",
+            "the", "quick", "brown", "fox", "jump", "##s", "over", "lazy", "dog", ".", ",", "a", "cat");
+
+    private static final List<String> TEXTS = List.of(
+            "The quick brown fox jumps over the lazy dog.",
+            "",
+            "A cat.",
+            "The lazy dog, the lazy cat, the quick fox, the brown dog.",
+            "Dogs",
+            "A quick cat jumps over a lazy fox, a brown dog jumps over a cat.");
+
+    @Test
+    void rowsAreTruncatedAndPaddedLikeEncodeBatch() throws IOException {
+        BertTokenizer tokenizer = tokenizer();
+        long[][] full = tokenizer.encodeBatch(TEXTS);
+        for (int maxLength : new int[]{2, 3, 8, 512}) {
+            for (int padTo : new int[]{1, 4, 5}) {
+                try (InputBatch batch = tokenizer.encodeInputBatch(TEXTS, maxLength, padTo)) {
+                    int longest = 0;
+                    for (long[] row : full) {
+                        longest = Math.max(longest, Math.min(row.length, maxLength));
+                    }
+                    int seqLen = Math.min(maxLength, (longest + padTo - 1) / padTo * padTo);
+                    assertArrayEquals(new long[]{TEXTS.size(), seqLen}, batch.shape());
+                    for (int row = 0; row < TEXTS.size(); row++) {
+                        long[] expected = truncate(full[row], maxLength);
+                        assertEquals(expected.length, batch.rowLength(row));
+                        assertArrayEquals(padded(expected, seqLen), row(batch.inputIds(), row, seqLen),
+                                "maxLength " + maxLength + ", padTo " + padTo + ", row " + row);
+                        assertArrayEquals(mask(expected.length, seqLen), row(batch.attentionMask(), row, seqLen));
+                        assertArrayEquals(new long[seqLen], row(batch.tokenTypeIds(), row, seqLen));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void encodePaddedMatchesEncodeInputBatch() throws IOException {
+        BertTokenizer tokenizer = tokenizer();
+        TokenizedBatch heap = tokenizer.encodePadded(TEXTS, 10, 4);
+        try (InputBatch batch = tokenizer.encodeInputBatch(TEXTS, 10, 4)) {
+            assertArrayEquals(batch.shape(), heap.shape());
+            assertArrayEquals(toArray(batch.inputIds()), heap.inputIds());
+            assertArrayEquals(toArray(batch.tokenTypeIds()), heap.tokenTypeIds());
+            assertArrayEquals(toArray(batch.attentionMask()), heap.attentionMask());
+            for (int row = 0; row < TEXTS.size(); row++) {
+                assertEquals(batch.rowLength(row), heap.rowLength(row));
+            }
+        }
+    }
+
+    @Test
+    void plannedBatchesHoldEveryTextOnceWithinTheLimits() throws IOException {
+        BertTokenizer tokenizer = tokenizer();
+        long[][] full = tokenizer.encodeBatch(TEXTS);
+        int maxLength = 12;
+        int maxTokens = 24;
+        try (BatchPlan plan = tokenizer.planBatches(TEXTS, maxLength, 2, 2, maxTokens)) {
+            boolean[] seen = new boolean[TEXTS.size()];
+            long tokenSlots = 0;
+            long plannedSlots = 0;
+            int rows = 0;
+            for (int b = 0; b < plan.batchCount(); b++) {
+                InputBatch batch = plan.batch(b);
+                int seqLen = batch.sequenceLength();
+                assertTrue(batch.batchSize() <= 2);
+                assertTrue(batch.batchSize() == 1 || batch.batchSize() * seqLen <= maxTokens, plan.toString());
+                for (int row = 0; row < batch.batchSize(); row++) {
+                    int index = plan.originalIndex(b, row);
+                    assertEquals(index, plan.permutation()[rows++]);
+                    assertTrue(!seen[index], "text " + index + " planned twice");
+                    seen[index] = true;
+                    long[] expected = truncate(full[index], maxLength);
+                    assertArrayEquals(padded(expected, seqLen), row(batch.inputIds(), row, seqLen));
+                    tokenSlots += expected.length;
+                }
+                plannedSlots += (long) batch.batchSize() * seqLen;
+            }
+            assertEquals(TEXTS.size(), rows);
+            assertEquals(tokenSlots, plan.tokenSlots());
+            assertEquals(plannedSlots, plan.plannedSlots());
+            assertTrue(plan.paddingSaved() >= 0);
+        }
+    }
+
+    @Test
+    void rejectsArgumentsThatLeaveNoRoom() throws IOException {
+        BertTokenizer tokenizer = tokenizer();
+        assertThrows(IllegalArgumentException.class, () -> tokenizer.encodeInputBatch(TEXTS, 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> tokenizer.encodeInputBatch(TEXTS, 8, 0));
+        assertThrows(IllegalArgumentException.class, () -> tokenizer.encodePadded(TEXTS, 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> tokenizer.planBatches(TEXTS, 8, 1, 0, 64));
+    }
+
+    private static BertTokenizer tokenizer() throws IOException {
+        Vocab vocab = Vocab.load(new ByteArrayInputStream(VOCAB.getBytes(StandardCharsets.UTF_8)));
+        return new BertTokenizer(new TokenizerArtifact(vocab), true);
+    }
+
+    // [CLS] ids [SEP] cut to maxLength, keeping the [SEP].
+    private static long[] truncate(long[] row, int maxLength) {
+        if (row.length <= maxLength) {
+            return row;
+        }
+        long[] cut = Arrays.copyOf(row, maxLength);
+        cut[maxLength - 1] = row[row.length - 1];
+        return cut;
+    }
+
+    private static long[] padded(long[] row, int seqLen) {
+        return Arrays.copyOf(row, seqLen);
+    }
+
+    private static long[] mask(int length, int seqLen) {
+        long[] mask = new long[seqLen];
+        Arrays.fill(mask, 0, length, 1);
+        return mask;
+    }
+
+    private static long[] row(LongBuffer buffer, int row, int seqLen) {
+        long[] values = new long[seqLen];
+        for (int col = 0; col < seqLen; col++) {
+            values[col] = buffer.get(row * seqLen + col);
+        }
+        return values;
+    }
+
+    private static long[] toArray(LongBuffer buffer) {
+        long[] values = new long[buffer.remaining()];
+        buffer.duplicate().get(values);
+        return values;
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.java_bert.tokenization;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class PairEncodingTest {
+    private static final String VOCAB = String.join("\n",
+            "[PAD]", "[UNK]", "[CLS]", "[SEP]", "[MASK]",
+            "the", "quick", "brown", "fox", "jump", "##s", "over", "lazy", "dog", ".", ",", "a", "cat");
+
+    private static final List<String> TEXTS = List.of(
+            "",
+            "a cat",
+            "the lazy dog",
+            "a quick brown fox",
+            "The quick brown fox jumps over the lazy dog.",
+            "A quick cat jumps over a lazy fox, a brown dog jumps over a cat, the fox jumps over the dog.");
+
+    @Test
+    void longestFirstMatchesDroppingOneTokenAtATime() throws IOException {
+        BertTokenizer tokenizer = tokenizer();
+        EncodingBuffer out = new EncodingBuffer();
+        for (int maxLength = 3; maxLength <= 40; maxLength++) {
+            for (String first : TEXTS) {
+                for (String second : TEXTS) {
+                    tokenizer.encodePair(first, second, maxLength, TruncationStrategy.LONGEST_FIRST, out);
+                    assertRow(tokenizer, out, 0, first, second, maxLength, TruncationStrategy.LONGEST_FIRST);
+                }
+            }
+        }
+    }
+
+    @Test
+    void longestFirstCutsTheSecondOnTies() throws IOException {
+        BertTokenizer tokenizer = tokenizer();
+        EncodingBuffer out = new EncodingBuffer();
+        // Both sides are 4 ids long and 5 fit: the second loses the odd one out.
+        tokenizer.encodePair("a quick brown fox", "the lazy dog .", 8, TruncationStrategy.LONGEST_FIRST, out);
+        assertEquals(8, out.length(0));
+        assertEquals(0, out.tokenTypeId(0, 4));
+        assertEquals(1, out.tokenTypeId(0, 5));
+        assertEquals(tokenizer.encodeWithOffsets("brown").ids()[0], out.inputId(0, 3));
+        assertEquals(tokenizer.encodeWithOffsets("lazy").ids()[0], out.inputId(0, 6));
+    }
+
+    @Test
+    void onlyFirstAndOnlySecondCutOneSide() throws IOException {
+        BertTokenizer tokenizer = tokenizer();
+        EncodingBuffer out = new EncodingBuffer();
+        String longText = TEXTS.get(TEXTS.size() - 1);
+        for (TruncationStrategy strategy : new TruncationStrategy[]{TruncationStrategy.ONLY_FIRST,
+                TruncationStrategy.ONLY_SECOND}) {
+            String first = strategy == TruncationStrategy.ONLY_FIRST ? longText : "a cat";
+            String second = strategy == TruncationStrategy.ONLY_FIRST ? "a cat" : longText;
+            for (int maxLength = 5; maxLength <= 40; maxLength++) {
+                tokenizer.encodePair(first, second, maxLength, strategy, out);
+                assertRow(tokenizer, out, 0, first, second, maxLength, strategy);
+            }
+        }
+    }
+
+    @Test
+    void onlyFirstAndOnlySecondFailWhenTheOtherSideOverflows() throws IOException {
+        BertTokenizer tokenizer = tokenizer();
+        EncodingBuffer out = new EncodingBuffer();
+        String longText = TEXTS.get(TEXTS.size() - 1);
+        assertThrows(IllegalArgumentException.class,
+                () -> tokenizer.encodePair("a cat", longText, 10, TruncationStrategy.ONLY_FIRST, out));
+        assertThrows(IllegalArgumentException.class,
+                () -> tokenizer.encodePair(longText, "a cat", 10, TruncationStrategy.ONLY_SECOND, out));
+        // Exactly full is not an overflow.
+        tokenizer.encodePair("a cat", "the lazy dog", 6, TruncationStrategy.ONLY_FIRST, out);
+        assertRow(tokenizer, out, 0, "a cat", "the lazy dog", 6, TruncationStrategy.ONLY_FIRST);
+        tokenizer.encodePair("the lazy dog", "a cat", 6, TruncationStrategy.ONLY_SECOND, out);
+        assertRow(tokenizer, out, 0, "the lazy dog", "a cat", 6, TruncationStrategy.ONLY_SECOND);
+    }
+
+    @Test
+    void rowsArePaddedToTheLongestWithSegmentIds() throws IOException {
+        BertTokenizer tokenizer = tokenizer();
+        EncodingBuffer out = new EncodingBuffer();
+        List<String> firsts = new ArrayList<>(TEXTS);
+        List<String> seconds = new ArrayList<>(TEXTS);
+        Collections.reverse(seconds);
+        int maxLength = 20;
+        tokenizer.encodePairs(firsts, seconds, maxLength, TruncationStrategy.LONGEST_FIRST, out);
+        assertEquals(firsts.size(), out.rows());
+        int longest = 0;
+        for (int row = 0; row < out.rows(); row++) {
+            assertRow(tokenizer, out, row, firsts.get(row), seconds.get(row), maxLength,
+                    TruncationStrategy.LONGEST_FIRST);
+            longest = Math.max(longest, out.length(row));
+        }
+        assertEquals(longest, out.sequenceLength());
+
+        // Reusing the buffer for a smaller batch leaves no trace of the larger one.
+        tokenizer.encodePairs(List.of("a cat"), List.of(""), maxLength, TruncationStrategy.LONGEST_FIRST, out);
+        assertEquals(1, out.rows());
+        assertEquals(5, out.sequenceLength());
+        assertRow(tokenizer, out, 0, "a cat", "", maxLength, TruncationStrategy.LONGEST_FIRST);
+    }
+
+    @Test
+    void rejectsMismatchedListsAndNoRoom() throws IOException {
+        BertTokenizer tokenizer = tokenizer();
+        EncodingBuffer out = new EncodingBuffer();
+        assertThrows(IllegalArgumentException.class, () -> tokenizer.encodePairs(List.of("a"), List.of(), 8,
+                TruncationStrategy.LONGEST_FIRST, out));
+        assertThrows(IllegalArgumentException.class,
+                () -> tokenizer.encodePair("a", "b", 2, TruncationStrategy.LONGEST_FIRST, out));
+    }
+
+    // Checks row against [CLS] first [SEP] second [SEP] built from the full encodings of both
+    // sides, cut the way the strategy describes, then padded to out.sequenceLength().
+    private static void assertRow(BertTokenizer tokenizer, EncodingBuffer out, int row, String first, String second,
+                                  int maxLength, TruncationStrategy strategy) {
+        int[] a = tokenizer.encodeWithOffsets(first).ids();
+        int[] b = tokenizer.encodeWithOffsets(second).ids();
+        int budget = maxLength - 3;
+        int keptA = a.length;
+        int keptB = b.length;
+        switch (strategy) {
+            case LONGEST_FIRST:
+                while (keptA + keptB > budget) {
+                    if (keptA > keptB) {
+                        keptA--;
+                    } else {
+                        keptB--;
+                    }
+                }
+                break;
+            case ONLY_FIRST:
+                keptA = Math.min(keptA, budget - keptB);
+                break;
+            case ONLY_SECOND:
+                keptB = Math.min(keptB, budget - keptA);
+                break;
+        }
+        int seqLen = out.sequenceLength();
+        long[] ids = new long[seqLen];
+        long[] types = new long[seqLen];
+        long[] mask = new long[seqLen];
+        int col = 0;
+        ids[col++] = 2;
+        for (int i = 0; i < keptA; i++) {
+            ids[col++] = a[i];
+        }
+        ids[col++] = 3;
+        int secondStart = col;
+        for (int i = 0; i < keptB; i++) {
+            ids[col++] = b[i];
+        }
+        ids[col++] = 3;
+        Arrays.fill(types, secondStart, col, 1);
+        Arrays.fill(mask, 0, col, 1);
+
+        String where = strategy + " maxLength " + maxLength + " [" + first + "] [" + second + "]";
+        assertEquals(col, out.length(row), where);
+        assertArrayEquals(ids, slice(out.inputIds(), row, seqLen), where);
+        assertArrayEquals(types, slice(out.tokenTypeIds(), row, seqLen), where);
+        assertArrayEquals(mask, slice(out.attentionMask(), row, seqLen), where);
+    }
+
+    private static long[] slice(long[] values, int row, int seqLen) {
+        return Arrays.copyOfRange(values, row * seqLen, (row + 1) * seqLen);
+    }
+
+    private static BertTokenizer tokenizer() throws IOException {
+        Vocab vocab = Vocab.load(new ByteArrayInputStream(VOCAB.getBytes(StandardCharsets.UTF_8)));
+        return new BertTokenizer(new TokenizerArtifact(vocab), true);
+    }
+}
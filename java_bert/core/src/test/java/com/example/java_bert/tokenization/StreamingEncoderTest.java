@@ -0,0 +1,81 @@
+package com.example.java_bert.tokenization;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class StreamingEncoderTest {
+    private static final String VOCAB = String.join("\n",
+            "[PAD]", "[UNK]", "[CLS]", "[SEP]", "[MASK]",
+            "i", "moved", "to", "new", "york", "last", "year", "in", "lives", ".", ",", "##s");
+
+    @Test
+    void addedTokenWithWhitespaceIsNotSplitAcrossChunks() throws IOException {
+        BertTokenizer tokenizer = tokenizer(List.of("New York", "York City"));
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            text.append(i % 3 == 0 ? "I moved to New York last year. " : "New  York lives in New York City, ");
+        }
+        int[] expected = tokenizer.encodeWithOffsets(text.toString()).ids();
+        int newYork = tokenizer.encodeWithOffsets("New York").ids()[0];
+        assertEquals(200, count(expected, newYork));
+
+        for (int chunk : new int[]{1, 2, 3, 5, 7, 64}) {
+            StreamingEncoder encoder = tokenizer.encodeStream(new TrickleReader(text.toString(), chunk), 32, 0);
+            int[] streamed = new int[2 * expected.length];
+            int count = 0;
+            long[] window;
+            while ((window = encoder.nextWindow()) != null) {
+                for (int i = 1; i < window.length - 1; i++) {
+                    streamed[count++] = (int) window[i];
+                }
+            }
+            assertArrayEquals(expected, Arrays.copyOf(streamed, count), "chunks of " + chunk + " chars");
+        }
+    }
+
+    private static BertTokenizer tokenizer(List<String> addedTokens) throws IOException {
+        Vocab vocab = Vocab.load(new ByteArrayInputStream(VOCAB.getBytes(StandardCharsets.UTF_8)));
+        return new BertTokenizer(new TokenizerArtifact(vocab), true, addedTokens);
+    }
+
+    private static int count(int[] ids, int id) {
+        int count = 0;
+        for (int value : ids) {
+            if (value == id) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // Hands out at most chunk chars per read, as a socket or a slow pipe might.
+    private static final class TrickleReader extends Reader {
+        private final Reader in;
+        private final int chunk;
+
+        TrickleReader(String text, int chunk) {
+            this.in = new StringReader(text);
+            this.chunk = chunk;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            return in.read(buffer, offset, Math.min(length, chunk));
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
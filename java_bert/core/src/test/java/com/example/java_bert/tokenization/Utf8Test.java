@@ -0,0 +1,141 @@
+package com.example.java_bert.tokenization;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class Utf8Test {
+    private static final String VOCAB = String.join("\n",
+            "[PAD]", "[UNK]", "[CLS]", "[SEP]", "[MASK]",
+            "a", "b", "ab", "##a", "##b", "##ab", "caf\u00E9", "##\u00E9", "\u00E9", "\u4E2D", "\u00A9", ".");
+
+    // Bytes that start, continue or break sequences, plus some well-formed ones.
+    private static final int[][] PIECES = {
+            {'a'}, {'b'}, {' '}, {'.'}, {0x00}, {0x80}, {0xBF}, {0xC0}, {0xC1}, {0xC2}, {0xC3}, {0xA9}, {0xE0},
+            {0xA0}, {0xED}, {0x9F}, {0xEF}, {0xF0}, {0x90}, {0xF4}, {0x8F}, {0xF5}, {0xFF},
+            {0xC3, 0xA9}, {0xC2, 0xA9}, {0xE4, 0xB8, 0xAD}, {0xF0, 0x9F, 0x98, 0x80}, {0xF0, 0xA0, 0x80, 0x80}};
+
+    // Named cases: truncated, overlong, surrogate-encoded and out-of-range sequences.
+    private static final int[][] CASES = {
+            {0xE4, 0xB8}, {'a', 0xE4, 0xB8, 'b'}, {'a', 0xE4, 0xB8, ' ', 'b'}, {0xF0, 0x9F, 0x98}, {0xC3},
+            {'a', 0xC3, ' ', 0xA9, 'b'}, {0xC0, 0xAF}, {0xC1, 0xBF}, {0xE0, 0x80, 0xAF}, {0xE0, 0x9F, 0xBF},
+            {0xF0, 0x80, 0x80, 0xAF}, {0xF0, 0x8F, 0xBF, 0xBF}, {0xED, 0xA0, 0x80}, {0xED, 0xBF, 0xBF}, {0xED, 0xA0},
+            {0xED, 0xB0, 0xE4, 0xB8, 0xAD}, {0xED, 0xA0, 0xBD, 0xED, 0xB8, 0x80}, {0xF4, 0x90, 0x80, 0x80},
+            {0xF5, 0x80, 0x80, 0x80}, {0xF8, 0x88, 0x80, 0x80, 0x80}, {0xFE}, {0xFF, 'a'}, {0x80, 0x80, 'a', 0xBF},
+            {'c', 'a', 'f', 0xC3}, {'c', 'a', 'f', 0xC3, 0xA9, 0xE9}, {0xE2, 0x80, 0xA8}, {0xEF, 0xBF, 0xBD},
+            {0xEF, 0xBF, 0xBF}};
+
+    @Test
+    void decodesLikeTheJdk() {
+        Random random = new Random(21);
+        for (int round = 0; round < 20000; round++) {
+            byte[] bytes = round < CASES.length ? bytes(CASES[round]) : randomBytes(random, 1 + random.nextInt(12));
+            String expected = new String(bytes, StandardCharsets.UTF_8);
+            StringBuilder decoded = new StringBuilder();
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            for (int i = 0; i < bytes.length; ) {
+                int d = Utf8.decode(buffer, i, bytes.length);
+                decoded.appendCodePoint(Utf8.codePoint(d));
+                i += Utf8.length(d);
+            }
+            assertEquals(expected, decoded.toString(), Arrays.toString(bytes));
+        }
+    }
+
+    @Test
+    void illFormedInputEncodesLikeTheDecodedString() throws IOException {
+        for (boolean lower : new boolean[]{false, true}) {
+            BertTokenizer tokenizer = tokenizer(lower, null);
+            Random random = new Random(lower ? 1 : 2);
+            for (int round = 0; round < 5000; round++) {
+                byte[] bytes = round < CASES.length ? bytes(CASES[round]) : randomBytes(random, random.nextInt(24));
+                check(tokenizer, bytes, random);
+            }
+        }
+    }
+
+    @Test
+    void addedTokensDoNotMatchAcrossIllFormedBytes() throws IOException {
+        BertTokenizer tokenizer = tokenizer(false, List.of("caf\u00E9 \u4E2D", "\u00A9b"));
+        byte[] cafe = "caf\u00E9 \u4E2D".getBytes(StandardCharsets.UTF_8);
+        check(tokenizer, cafe, new Random(0));
+        byte[] broken = Arrays.copyOf(cafe, cafe.length - 1);
+        check(tokenizer, broken, new Random(0));
+        check(tokenizer, bytes(new int[]{0xC2, 0xC2, 0xA9, 'b', 0xA9, 'b', 0xE4, 0xC2, 0xA9, 'b'}), new Random(0));
+        Random random = new Random(3);
+        for (int round = 0; round < 2000; round++) {
+            check(tokenizer, randomBytes(random, random.nextInt(24)), random);
+        }
+    }
+
+    // Encodes bytes through every UTF-8 entry point, from a slice of a larger buffer whose
+    // surrounding bytes would complete or extend a sequence at either edge.
+    private static void check(BertTokenizer tokenizer, byte[] bytes, Random random) {
+        String text = new String(bytes, StandardCharsets.UTF_8);
+        long[] expected = tokenizer.encodeBatch(List.of(text))[0];
+        String where = Arrays.toString(bytes);
+
+        int before = random.nextInt(4);
+        byte[] padded = new byte[before + bytes.length + 4];
+        padded[0] = (byte) 0xE4;
+        for (int i = 1; i < before; i++) {
+            padded[i] = (byte) 0xB8;
+        }
+        System.arraycopy(bytes, 0, padded, before, bytes.length);
+        // Continuation bytes past the limit must not finish a sequence truncated at the limit.
+        Arrays.fill(padded, before + bytes.length, padded.length, (byte) 0xAD);
+        padded[padded.length - 1] = 'a';
+        assertArrayEquals(expected, tokenizer.encodeUtf8(padded, before, bytes.length), where);
+
+        ByteBuffer heap = ByteBuffer.wrap(padded);
+        ByteBuffer direct = ByteBuffer.allocateDirect(padded.length).put(padded);
+        for (ByteBuffer buffer : new ByteBuffer[]{heap, direct}) {
+            buffer.limit(before + bytes.length).position(before);
+            assertArrayEquals(expected, tokenizer.encodeUtf8(buffer), where);
+            assertArrayEquals(expected, tokenizer.encodeUtf8(buffer, Integer.MAX_VALUE).ids(), where);
+            int[] out = new int[expected.length + 3];
+            assertEquals(expected.length, tokenizer.encodeUtf8(buffer, out, 1), where);
+            for (int i = 0; i < expected.length; i++) {
+                assertEquals(expected[i], out[i + 1], where);
+            }
+            int[] ids = tokenizer.encodeUtf8WithOffsets(buffer).ids();
+            assertArrayEquals(tokenizer.encodeWithOffsets(text).ids(), ids, where);
+            assertEquals(before, buffer.position());
+            assertEquals(before + bytes.length, buffer.limit());
+            buffer.clear();
+        }
+    }
+
+    private static byte[] randomBytes(Random random, int pieces) {
+        ByteBuffer bytes = ByteBuffer.allocate(4 * pieces);
+        for (int i = 0; i < pieces; i++) {
+            for (int b : PIECES[random.nextInt(PIECES.length)]) {
+                bytes.put((byte) b);
+            }
+        }
+        return Arrays.copyOf(bytes.array(), bytes.position());
+    }
+
+    private static byte[] bytes(int[] values) {
+        byte[] bytes = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            bytes[i] = (byte) values[i];
+        }
+        return bytes;
+    }
+
+    private static BertTokenizer tokenizer(boolean lower, List<String> addedTokens) throws IOException {
+        Vocab vocab = Vocab.load(new ByteArrayInputStream(VOCAB.getBytes(StandardCharsets.UTF_8)));
+        return addedTokens == null ? new BertTokenizer(new TokenizerArtifact(vocab), lower)
+                : new BertTokenizer(new TokenizerArtifact(vocab), lower, addedTokens);
+    }
+}
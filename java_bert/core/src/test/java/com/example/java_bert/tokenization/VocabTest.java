@@ -0,0 +1,103 @@
+package com.example.java_bert.tokenization;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class VocabTest {
+    @Test
+    void repeatedLinesResolveToTheLastOne() throws IOException {
+        String lines = "a\nb\na\n\nc\nb";
+        Vocab vocab = load(lines);
+        // What the old HashMap built from the same lines held.
+        Map<String, Integer> expected = new HashMap<>();
+        String[] split = lines.split("\n", -1);
+        for (int id = 0; id < split.length; id++) {
+            expected.put(split[id], id);
+        }
+        for (Map.Entry<String, Integer> entry : expected.entrySet()) {
+            assertEquals((int) entry.getValue(), vocab.id(entry.getKey()), entry.getKey());
+            assertEquals(entry.getKey(), vocab.token(entry.getValue()));
+        }
+        assertEquals(expected.size(), vocab.size());
+        assertEquals(split.length, vocab.capacity());
+        // The shadowed lines map back to nothing.
+        assertNull(vocab.token(0));
+        assertNull(vocab.token(1));
+        assertFalse(vocab.contains(0));
+        assertTrue(vocab.contains(2));
+    }
+
+    @Test
+    void tokenizerUsesTheLastIdOfARepeatedPiece() throws IOException {
+        Vocab vocab = load("[PAD]\n[UNK]\n[CLS]\n[SEP]\ncat\ndog\ncat\n##s\ndog\n##s");
+        BertTokenizer tokenizer = new BertTokenizer(new TokenizerArtifact(vocab), false);
+        assertArrayEquals(new int[]{6, 9, 8}, tokenizer.encodeWithOffsets("cats dog").ids());
+        assertEquals(List.of("cat", "##s", "dog"), tokenizer.tokenize("cats dog"));
+        assertArrayEquals(new long[][]{{2, 6, 9, 8, 3}}, tokenizer.convertTokensToIds(List.of("cat", "##s", "dog")));
+    }
+
+    @Test
+    void lookupsMatchAHashMap() {
+        Random random = new Random(4);
+        // Short tokens over three letters collide a lot, in the table and with each other.
+        String[] tokens = new String[5000];
+        Map<String, Integer> expected = new HashMap<>();
+        for (int id = 0; id < tokens.length; id++) {
+            if (random.nextInt(50) == 0) {
+                continue;
+            }
+            StringBuilder token = new StringBuilder();
+            int length = random.nextInt(7);
+            for (int i = 0; i < length; i++) {
+                token.append("ab\u00E9".charAt(random.nextInt(3)));
+            }
+            tokens[id] = token.toString();
+            expected.put(tokens[id], id);
+        }
+        Vocab fromArray = new Vocab(tokens);
+        Vocab fromMap = new Vocab(expected);
+        for (Vocab vocab : new Vocab[]{fromArray, fromMap}) {
+            assertEquals(expected.size(), vocab.size());
+            for (Map.Entry<String, Integer> entry : expected.entrySet()) {
+                String token = entry.getKey();
+                int id = entry.getValue();
+                assertEquals(id, vocab.id(token));
+                String padded = "x#" + token + "#";
+                assertEquals(id, vocab.id(padded, 2, padded.length() - 1));
+                assertEquals(id, vocab.id(padded.toCharArray(), 2, padded.length() - 1));
+                assertEquals(token, vocab.token(id));
+                assertEquals(token.length(), vocab.tokenLength(id));
+            }
+            for (int id = 0; id < tokens.length; id++) {
+                assertEquals(tokens[id] != null && expected.get(tokens[id]) == id, vocab.contains(id));
+            }
+            assertEquals(Vocab.NO_ID, vocab.id("abcab\u00E9ab"));
+            assertEquals(Vocab.NO_ID, vocab.id("c"));
+        }
+    }
+
+    @Test
+    void emptyVocabHasNoTokens() throws IOException {
+        Vocab vocab = load("");
+        assertEquals(0, vocab.size());
+        assertEquals(Vocab.NO_ID, vocab.id("a"));
+        assertNull(vocab.token(0));
+    }
+
+    private static Vocab load(String lines) throws IOException {
+        return Vocab.load(new ByteArrayInputStream(lines.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.java_bert.tokenization;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class WordpieceTokenizerTest {
+    private static final String[] PIECES = {
+            "[PAD]", "[UNK]", "[CLS]", "[SEP]", "[MASK]",
+            "un", "una", "unaff", "##a", "##aff", "##affable", "##able", "##ab", "##le", "##e",
+            "token", "##ization", "##iz", "##ation", "##s", "id", "##-", "##1", "##12", "##123", "x", "##x", "##xx"};
+
+    @Test
+    void matchesSubstringProbingOnKnownWords() {
+        Map<String, Integer> vocab = vocab(PIECES);
+        WordpieceTokenizer wordpiece = new WordpieceTokenizer(vocab, "[UNK]");
+        String text = "unaffable unable una unaffa tokenization tokens id-123 id-1231 xxxxx xxxy q "
+                + "unaffableable tokenizationz";
+        assertEquals(Baseline.wordpiece(vocab, text, "[UNK]", 100), wordpiece.tokenize(text));
+        assertEquals(List.of("unaff", "##able"), wordpiece.tokenize("unaffable"));
+        assertEquals(List.of("[UNK]"), wordpiece.tokenize("unab"));
+    }
+
+    @Test
+    void matchesSubstringProbingOnRandomVocabsAndWords() {
+        Random random = new Random(1);
+        for (int round = 0; round < 200; round++) {
+            Map<String, Integer> vocab = new LinkedHashMap<>();
+            vocab.put("[UNK]", 0);
+            int pieces = 1 + random.nextInt(40);
+            while (vocab.size() <= pieces) {
+                String piece = randomWord(random, 1 + random.nextInt(4));
+                vocab.putIfAbsent(random.nextBoolean() ? "##" + piece : piece, vocab.size());
+            }
+            StringBuilder text = new StringBuilder();
+            for (int w = 0; w < 30; w++) {
+                text.append(randomWord(random, 1 + random.nextInt(14))).append(' ');
+            }
+            for (int maxChars : new int[]{1, 3, 10, 100}) {
+                WordpieceTokenizer wordpiece = new WordpieceTokenizer(vocab, "[UNK]", maxChars);
+                assertEquals(Baseline.wordpiece(vocab, text.toString(), "[UNK]", maxChars),
+                        wordpiece.tokenize(text.toString()), "vocab " + vocab.keySet() + ", max " + maxChars);
+            }
+        }
+    }
+
+    @Test
+    void idPathsMatchSubstringProbing() {
+        Map<String, Integer> vocab = vocab(PIECES);
+        Random random = new Random(2);
+        // No punctuation: BasicTokenizer would split there and whitespaceTokenize would not.
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            String word = random.nextInt(4) == 0 ? randomWord(random, 1 + random.nextInt(120))
+                    : PIECES[5 + random.nextInt(PIECES.length - 5)].replace("##", "")
+                    + PIECES[5 + random.nextInt(PIECES.length - 5)].replace("##", "");
+            words.add(word.replace("-", ""));
+        }
+        String text = String.join(" ", words);
+        List<String> expected = Baseline.wordpiece(vocab, text, "[UNK]", 100);
+
+        BertTokenizer tokenizer = new BertTokenizer(new TokenizerArtifact(new Vocab(vocab)), false);
+        for (WordpieceCache cache : new WordpieceCache[]{null, WordpieceCache.ofEntries(64)}) {
+            tokenizer.setWordpieceCache(cache);
+            for (int pass = 0; pass < 2; pass++) {
+                assertEquals(expected, tokenizer.tokenize(text));
+                int[] ids = tokenizer.encodeWithOffsets(text).ids();
+                List<String> tokens = new ArrayList<>();
+                for (int id : ids) {
+                    tokens.add(PIECES[id]);
+                }
+                assertEquals(expected, tokens);
+            }
+        }
+    }
+
+    private static Map<String, Integer> vocab(String[] pieces) {
+        Map<String, Integer> vocab = new LinkedHashMap<>();
+        for (String piece : pieces) {
+            vocab.put(piece, vocab.size());
+        }
+        return vocab;
+    }
+
+    // Few distinct letters, so pieces overlap a lot and words often have no tokenization.
+    private static String randomWord(Random random, int length) {
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            word.append("abcx-1".charAt(random.nextInt(6)));
+        }
+        return word.toString();
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.java_bert.tools;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.java_bert.tokenization.BertTokenizer;
+import com.example.java_bert.tokenization.TokenizerArtifact;
+import com.example.java_bert.tokenization.Vocab;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CorpusTokenizerTest {
+    private static final String VOCAB = String.join("\n",
+            "[PAD]", "[UNK]", "[CLS]", "[SEP]", "[MASK]", "the", "cat", "sat", "caf\u00E9", "\u4E2D", ".", "##s");
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void chunksEndJustAfterANewline() throws IOException {
+        Path crlf = write("crlf.txt", "the cat\r\n\r\n\r\nsat.\r\n\ncats\r\nlast line without newline");
+        Path empty = write("empty.txt", "");
+        Path blank = write("blank.txt", "\n\n\n\n");
+        Random random = new Random(22);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 3000; i++) {
+            text.append(random.nextInt(10) == 0 ? "" : "the cat sat").append(random.nextBoolean() ? "\n" : "\r\n");
+        }
+        // One line longer than the 64 KB window plan reads at a time.
+        text.append("x".repeat(200_000)).append("\nend\n");
+        Path longLines = write("long.txt", text.toString());
+        List<Path> inputs = List.of(crlf, empty, blank, longLines);
+
+        for (long chunkBytes : new long[]{1, 2, 3, 5, 8, 13, 100, 4096, 70_000, 1 << 20}) {
+            List<CorpusTokenizer.Chunk> chunks = CorpusTokenizer.plan(inputs, chunkBytes);
+            int index = 0;
+            for (Path input : inputs) {
+                byte[] bytes = Files.readAllBytes(input);
+                long start = 0;
+                while (start < bytes.length) {
+                    CorpusTokenizer.Chunk chunk = chunks.get(index);
+                    assertEquals(index, chunk.index);
+                    assertEquals(input, chunk.file);
+                    assertEquals(start, chunk.start);
+                    assertEquals(expectedEnd(bytes, start, chunkBytes), chunk.end, input + " " + chunkBytes);
+                    // So no cut falls between \r and \n.
+                    assertTrue(chunk.end == bytes.length || bytes[(int) chunk.end - 1] == '\n');
+                    start = chunk.end;
+                    index++;
+                }
+            }
+            assertEquals(index, chunks.size());
+            // The plan only depends on the inputs and chunkBytes.
+            List<CorpusTokenizer.Chunk> again = CorpusTokenizer.plan(inputs, chunkBytes);
+            for (int i = 0; i < chunks.size(); i++) {
+                assertEquals(chunks.get(i).end, again.get(i).end);
+            }
+        }
+    }
+
+    @Test
+    void shardsHoldEveryNonEmptyLineAndResumeSkipsCompleteOnes() throws Exception {
+        Path vocab = write("vocab.txt", VOCAB);
+        Path first = write("first.txt", "The cat sat.\r\n\r\ncaf\u00E9 \u4E2D\n\n  \ncats\r\n");
+        Path second = write("second.txt", "sat\nthe dog\r\ncaf\u00E9");
+        Path out = dir.resolve("out");
+        String[] args = {"--lower", "--threads", "2", vocab.toString(), out.toString(), first.toString(),
+                second.toString()};
+        CorpusTokenizer.main(args);
+
+        BertTokenizer tokenizer = new BertTokenizer(TokenizerArtifact.load(vocab.toString()), true);
+        // The vocab file is UTF-8 whatever the platform charset.
+        Vocab loaded = TokenizerArtifact.load(vocab.toString()).getVocab();
+        assertEquals(8, loaded.id("caf\u00E9"));
+        assertEquals(9, loaded.id("\u4E2D"));
+        assertEquals(List.of("\u4E2D"), tokenizer.tokenize("\u4E2D"));
+        List<long[]> expectedFirst = rows(tokenizer, "The cat sat.", "caf\u00E9 \u4E2D", "  ", "cats");
+        List<long[]> expectedSecond = rows(tokenizer, "sat", "the dog", "caf\u00E9");
+        Path shard0 = out.resolve("shard-00000.bin");
+        Path shard1 = out.resolve("shard-00001.bin");
+        assertRecords(expectedFirst, shard0, 4);
+        assertRecords(expectedSecond, shard1, 4);
+        byte[] completeSecond = Files.readAllBytes(shard1);
+
+        // A complete shard is left alone on a re-run, and a missing one is written again.
+        Files.write(shard0, new byte[]{42});
+        Files.delete(shard1);
+        Files.write(out.resolve("shard-00001.bin.tmp"), new byte[]{1, 2, 3});
+        CorpusTokenizer.main(args);
+        assertArrayEquals(new byte[]{42}, Files.readAllBytes(shard0));
+        assertArrayEquals(completeSecond, Files.readAllBytes(shard1));
+        assertFalse(Files.exists(out.resolve("shard-00001.bin.tmp")));
+
+        Path uint16 = dir.resolve("uint16");
+        CorpusTokenizer.main(new String[]{"--lower", "--dtype", "uint16", vocab.toString(), uint16.toString(),
+                first.toString()});
+        assertRecords(expectedFirst, uint16.resolve("shard-00000.bin"), 2);
+    }
+
+    @Test
+    void uint16FitsByHighestIdNotDistinctTokens() {
+        String[] tokens = new String[0x10000];
+        Arrays.fill(tokens, "same");
+        tokens[0] = "other";
+        // Two distinct tokens, but the last line's id is 0xFFFF.
+        assertTrue(CorpusTokenizer.fitsUint16(new Vocab(tokens)));
+        String[] more = Arrays.copyOf(tokens, 0x10001);
+        more[0x10000] = "same";
+        assertEquals(2, new Vocab(more).size());
+        assertFalse(CorpusTokenizer.fitsUint16(new Vocab(more)));
+    }
+
+    // Just after the first '\n' at or past start + chunkBytes, or the end of the file.
+    private static long expectedEnd(byte[] bytes, long start, long chunkBytes) {
+        for (long i = start + chunkBytes; i < bytes.length; i++) {
+            if (bytes[(int) i] == '\n') {
+                return i + 1;
+            }
+        }
+        return bytes.length;
+    }
+
+    private static List<long[]> rows(BertTokenizer tokenizer, String... lines) {
+        return Arrays.asList(tokenizer.encodeBatch(Arrays.asList(lines)));
+    }
+
+    private static void assertRecords(List<long[]> expected, Path shard, int bytesPerToken) throws IOException {
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(shard)).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(CorpusTokenizer.MAGIC, in.getInt());
+        assertEquals(CorpusTokenizer.VERSION, in.getInt());
+        assertEquals(bytesPerToken, in.getInt());
+        assertEquals(0, in.getInt());
+        long records = in.getLong();
+        long tokens = in.getLong();
+        assertEquals(expected.size(), records);
+        long[] ids = new long[(int) tokens];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = bytesPerToken == 2 ? Short.toUnsignedInt(in.getShort()) : in.getInt();
+        }
+        List<long[]> actual = new ArrayList<>();
+        long from = in.getLong();
+        assertEquals(0, from);
+        for (int r = 0; r < records; r++) {
+            long to = in.getLong();
+            actual.add(Arrays.copyOfRange(ids, (int) from, (int) to));
+            from = to;
+        }
+        assertEquals(tokens, from);
+        assertFalse(in.hasRemaining());
+        for (int r = 0; r < records; r++) {
+            assertArrayEquals(expected.get(r), actual.get(r), "record " + r);
+        }
+    }
+
+    private Path write(String name, String text) throws IOException {
+        return Files.write(dir.resolve(name), text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.java_bert.inference;
+
+import ai.onnxruntime.OnnxTensor;
+import ai.onnxruntime.OrtException;
+import ai.onnxruntime.OrtSession;
+
+import com.example.java_bert.onnx.OnnxInputs;
+import com.example.java_bert.onnx.OnnxTensorBatch;
+import com.example.java_bert.tokenization.BertTokenizer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Scores texts with one long-lived model. Texts submitted from any thread are gathered into
+// micro-batches of at most maxBatchSize, waiting at most maxWaitMillis after the first one
+// arrives, encoded together and run in a single forward pass; each caller gets back the logits
+// of its own tokens.
+public class InferenceService implements AutoCloseable {
+    private static final int DEFAULT_MAX_LENGTH = 512;
+    private static final int PAD_TO_MULTIPLE_OF = 8;
+
+    // One forward pass over an encoded batch, returning logits of shape [batch, seqLen, labels].
+    // forSession adapts an OrtSession; tests can pass a stub.
+    public interface Model {
+        float[][][] run(Map<String, OnnxTensor> inputs) throws OrtException;
+    }
+
+    private final BertTokenizer tokenizer;
+    private final Model model;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final int maxLength;
+    private final BlockingQueue<Request> queue = new LinkedBlockingQueue<>();
+    private final Thread worker;
+    private volatile boolean closed;
+
+    public InferenceService(BertTokenizer tokenizer, Model model, int maxBatchSize, long maxWaitMillis) {
+        this(tokenizer, model, maxBatchSize, maxWaitMillis, DEFAULT_MAX_LENGTH);
+    }
+
+    public InferenceService(BertTokenizer tokenizer, Model model, int maxBatchSize, long maxWaitMillis,
+                            int maxLength) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be positive: " + maxBatchSize);
+        }
+        if (maxWaitMillis < 0) {
+            throw new IllegalArgumentException("maxWaitMillis must not be negative: " + maxWaitMillis);
+        }
+        this.tokenizer = tokenizer;
+        this.model = model;
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        this.maxLength = maxLength;
+        this.worker = new Thread(this::runLoop, "bert-inference");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    // Feeds only the inputs the session declares (some models take no token_type_ids) and
+    // returns its first output. The session stays owned by the caller.
+    public static Model forSession(OrtSession session) {
+        Set<String> inputNames = session.getInputNames();
+        return inputs -> {
+            Map<String, OnnxTensor> feed = new HashMap<>();
+            for (Map.Entry<String, OnnxTensor> input : inputs.entrySet()) {
+                if (inputNames.contains(input.getKey())) {
+                    feed.put(input.getKey(), input.getValue());
+                }
+            }
+            try (OrtSession.Result result = session.run(feed)) {
+                return (float[][][]) result.get(0).getValue();
+            }
+        };
+    }
+
+    // Completes with one row of logits per token of the encoded text, [CLS] and [SEP] included.
+    public CompletableFuture<float[][]> submit(String text) {
+        CompletableFuture<float[][]> future = new CompletableFuture<>();
+        if (closed) {
+            future.completeExceptionally(new IllegalStateException("InferenceService is closed"));
+            return future;
+        }
+        queue.add(new Request(text, future));
+        if (closed) {
+            failQueued();
+        }
+        return future;
+    }
+
+    // Stops taking texts, lets the batch in flight finish and fails everything still queued.
+    @Override
+    public void close() {
+        closed = true;
+        worker.interrupt();
+        boolean interrupted = false;
+        while (worker.isAlive()) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        failQueued();
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runLoop() {
+        List<Request> batch = new ArrayList<>(maxBatchSize);
+        try {
+            while (!closed) {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    Request next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                runBatch(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            // close() interrupts the worker.
+        } finally {
+            // Also reached when an Error ends the loop: nothing would serve the queue any more.
+            closed = true;
+            IllegalStateException closedError = new IllegalStateException("InferenceService is closed");
+            for (Request request : batch) {
+                request.future.completeExceptionally(closedError);
+            }
+            failQueued();
+        }
+    }
+
+    private void runBatch(List<Request> batch) {
+        List<String> texts = new ArrayList<>(batch.size());
+        for (Request request : batch) {
+            texts.add(request.text);
+        }
+        try (OnnxTensorBatch inputs = OnnxInputs.encodeOnnxBatch(tokenizer, texts, maxLength, PAD_TO_MULTIPLE_OF)) {
+            float[][][] logits = model.run(inputs.getInputs());
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).future.complete(Arrays.copyOf(logits[i], inputs.rowLength(i)));
+            }
+        } catch (Throwable e) {
+            for (Request request : batch) {
+                request.future.completeExceptionally(e);
+            }
+            if (e instanceof Error) {
+                throw (Error) e;
+            }
+        }
+    }
+
+    private void failQueued() {
+        IllegalStateException closedError = new IllegalStateException("InferenceService is closed");
+        Request request;
+        while ((request = queue.poll()) != null) {
+            request.future.completeExceptionally(closedError);
+        }
+    }
+
+    private static final class Request {
+        final String text;
+        final CompletableFuture<float[][]> future;
+
+        Request(String text, CompletableFuture<float[][]> future) {
+            this.text = text;
+            this.future = future;
+        }
+    }
+}
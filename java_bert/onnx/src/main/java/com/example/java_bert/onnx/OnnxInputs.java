@@ -0,0 +1,80 @@
+package com.example.java_bert.onnx;
+
+import ai.onnxruntime.OnnxTensor;
+import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtException;
+
+import com.example.java_bert.tokenization.BertTokenizer;
+import com.example.java_bert.tokenization.InputBatch;
+import com.example.java_bert.tokenization.TokenizedBatch;
+
+import java.nio.LongBuffer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// input_ids, token_type_ids and attention_mask tensors for what BertTokenizer encodes, so the
+// tokenizer itself does not depend on ONNX Runtime.
+public final class OnnxInputs {
+    private static final int DEFAULT_MAX_LENGTH = 512;
+
+    private OnnxInputs() {
+    }
+
+    public static Map<String, OnnxTensor> tokenizeOnnxTensor(BertTokenizer tokenizer, List<String> texts)
+            throws OrtException {
+        return tokenizeOnnxTensor(tokenizer, texts, DEFAULT_MAX_LENGTH, 1);
+    }
+
+    // The tensors are built over copies outside the buffer pool, since nothing would hand pooled
+    // buffers back; the caller closes them. encodeOnnxBatch avoids the copy.
+    public static Map<String, OnnxTensor> tokenizeOnnxTensor(BertTokenizer tokenizer, List<String> texts,
+                                                             int maxLength, int padToMultipleOf)
+            throws OrtException {
+        return createTensors(OrtEnvironment.getEnvironment(),
+                tokenizer.encodePadded(texts, maxLength, padToMultipleOf));
+    }
+
+    // BertTokenizer.encodeInputBatch, wrapped as tensors without another copy. Close the returned
+    // batch once the model has run to recycle the buffers.
+    public static OnnxTensorBatch encodeOnnxBatch(BertTokenizer tokenizer, List<String> texts, int maxLength,
+                                                  int padToMultipleOf) throws OrtException {
+        return wrap(tokenizer.encodeInputBatch(texts, maxLength, padToMultipleOf));
+    }
+
+    // Tensors over the batch's buffers, e.g. one of a BatchPlan's. The returned batch takes the
+    // input batch over and closes it too.
+    public static OnnxTensorBatch wrap(InputBatch batch) throws OrtException {
+        OrtEnvironment env = OrtEnvironment.getEnvironment();
+        long[] shape = batch.shape();
+        Map<String, OnnxTensor> inputs = new HashMap<>();
+        OnnxTensorBatch tensors = new OnnxTensorBatch(inputs, batch);
+        try {
+            inputs.put("input_ids", OnnxTensor.createTensor(env, batch.inputIds(), shape));
+            inputs.put("token_type_ids", OnnxTensor.createTensor(env, batch.tokenTypeIds(), shape));
+            inputs.put("attention_mask", OnnxTensor.createTensor(env, batch.attentionMask(), shape));
+        } catch (OrtException | RuntimeException e) {
+            tensors.close();
+            throw e;
+        }
+        return tensors;
+    }
+
+    // Tensors over copies of a TokenizedBatch's arrays. The caller closes them.
+    public static Map<String, OnnxTensor> createTensors(OrtEnvironment env, TokenizedBatch batch)
+            throws OrtException {
+        Map<String, OnnxTensor> inputs = new HashMap<>();
+        long[] shape = batch.shape();
+        try {
+            inputs.put("input_ids", OnnxTensor.createTensor(env, LongBuffer.wrap(batch.inputIds()), shape));
+            inputs.put("token_type_ids", OnnxTensor.createTensor(env, LongBuffer.wrap(batch.tokenTypeIds()), shape));
+            inputs.put("attention_mask", OnnxTensor.createTensor(env, LongBuffer.wrap(batch.attentionMask()), shape));
+        } catch (OrtException | RuntimeException e) {
+            for (OnnxTensor tensor : inputs.values()) {
+                tensor.close();
+            }
+            throw e;
+        }
+        return inputs;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.java_bert.onnx;
+
+import ai.onnxruntime.OnnxTensor;
+
+import com.example.java_bert.tokenization.InputBatch;
+
+import java.util.Map;
+
+// Model inputs of shape [batchSize, sequenceLength] as tensors over an InputBatch's pooled
+// direct buffers. Closing the batch closes the tensors and hands the buffers back to the pool.
+public class OnnxTensorBatch implements AutoCloseable {
+    private final Map<String, OnnxTensor> inputs;
+    private final InputBatch batch;
+    private boolean closed;
+
+    OnnxTensorBatch(Map<String, OnnxTensor> inputs, InputBatch batch) {
+        this.inputs = inputs;
+        this.batch = batch;
+    }
+
+    public Map<String, OnnxTensor> getInputs() {
+        return inputs;
+    }
+
+    public int batchSize() {
+        return batch.batchSize();
+    }
+
+    public int sequenceLength() {
+        return batch.sequenceLength();
+    }
+
+    // Unpadded length of a row, [CLS] and [SEP] included.
+    public int rowLength(int row) {
+        return batch.rowLength(row);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (OnnxTensor tensor : inputs.values()) {
+            tensor.close();
+        }
+        batch.close();
+    }
+}
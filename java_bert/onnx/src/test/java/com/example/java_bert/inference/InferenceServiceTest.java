@@ -0,0 +1,216 @@
+package com.example.java_bert.inference;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import ai.onnxruntime.OnnxTensor;
+import ai.onnxruntime.OrtException;
+
+import com.example.java_bert.tokenization.BertTokenizer;
+import com.example.java_bert.tokenization.TokenizerArtifact;
+import com.example.java_bert.tokenization.Vocab;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.LongBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class InferenceServiceTest {
+    private static final String VOCAB = String.join("\n",
+            "[PAD]", "[UNK]", "[CLS]", "[SEP]", "[MASK]",
+            "the", "quick", "brown", "fox", "jump", "##s", "over", "lazy", "dog", ".", ",", "a", "cat");
+
+    private static final List<String> TEXTS = List.of(
+            "a cat", "The quick brown fox jumps over the lazy dog.", "", "dogs", "the lazy cat, the quick fox",
+            "a brown dog");
+
+    @Test
+    void fullBatchesRunWithoutWaitingOutTheDeadline() throws Exception {
+        BertTokenizer tokenizer = tokenizer();
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        InferenceService.Model model = inputs -> {
+            batchSizes.add((int) inputs.get("input_ids").getInfo().getShape()[0]);
+            return echoIds(inputs);
+        };
+        try (InferenceService service = new InferenceService(tokenizer, model, 3, TimeUnit.MINUTES.toMillis(1))) {
+            List<CompletableFuture<float[][]>> futures = new ArrayList<>();
+            for (String text : TEXTS) {
+                futures.add(service.submit(text));
+            }
+            for (int i = 0; i < TEXTS.size(); i++) {
+                assertEchoes(tokenizer, TEXTS.get(i), futures.get(i).get(10, TimeUnit.SECONDS));
+            }
+        }
+        assertEquals(List.of(3, 3), batchSizes);
+    }
+
+    @Test
+    void partialBatchRunsOnceTheWaitIsOver() throws Exception {
+        BertTokenizer tokenizer = tokenizer();
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        InferenceService.Model model = inputs -> {
+            batchSizes.add((int) inputs.get("input_ids").getInfo().getShape()[0]);
+            return echoIds(inputs);
+        };
+        try (InferenceService service = new InferenceService(tokenizer, model, 64, 20)) {
+            CompletableFuture<float[][]> first = service.submit(TEXTS.get(0));
+            CompletableFuture<float[][]> second = service.submit(TEXTS.get(1));
+            assertEchoes(tokenizer, TEXTS.get(0), first.get(10, TimeUnit.SECONDS));
+            assertEchoes(tokenizer, TEXTS.get(1), second.get(10, TimeUnit.SECONDS));
+            assertEchoes(tokenizer, TEXTS.get(2), service.submit(TEXTS.get(2)).get(10, TimeUnit.SECONDS));
+        }
+        int total = 0;
+        for (int size : batchSizes) {
+            total += size;
+        }
+        assertEquals(3, total);
+        assertEquals(1, batchSizes.get(batchSizes.size() - 1));
+    }
+
+    @Test
+    void modelFailureFailsOnlyThatBatch() throws Exception {
+        BertTokenizer tokenizer = tokenizer();
+        InferenceService.Model model = inputs -> {
+            if (inputs.get("input_ids").getLongBuffer().get(1) == tokenizer.encodeWithOffsets("dogs").ids()[0]) {
+                throw new OrtException("model failed");
+            }
+            return echoIds(inputs);
+        };
+        try (InferenceService service = new InferenceService(tokenizer, model, 1, 0)) {
+            ExecutionException failed = assertThrows(ExecutionException.class,
+                    () -> service.submit("dogs").get(10, TimeUnit.SECONDS));
+            assertInstanceOf(OrtException.class, failed.getCause());
+            assertEchoes(tokenizer, "a cat", service.submit("a cat").get(10, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void errorInTheModelFailsEveryCallerInsteadOfHanging() throws Exception {
+        BertTokenizer tokenizer = tokenizer();
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        InferenceService.Model model = inputs -> {
+            entered.countDown();
+            awaitUninterruptibly(release);
+            throw new StackOverflowError("model blew up");
+        };
+        InferenceService service = new InferenceService(tokenizer, model, 1, 0);
+        try {
+            CompletableFuture<float[][]> inFlight = service.submit("a cat");
+            assertTrue(entered.await(10, TimeUnit.SECONDS));
+            CompletableFuture<float[][]> queued = service.submit("the dog");
+            release.countDown();
+
+            ExecutionException failed = assertThrows(ExecutionException.class,
+                    () -> inFlight.get(10, TimeUnit.SECONDS));
+            assertInstanceOf(StackOverflowError.class, failed.getCause());
+            failed = assertThrows(ExecutionException.class, () -> queued.get(10, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, failed.getCause());
+            failed = assertThrows(ExecutionException.class,
+                    () -> service.submit("a cat").get(10, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, failed.getCause());
+        } finally {
+            service.close();
+        }
+    }
+
+    @Test
+    void closeFinishesTheBatchInFlightAndFailsTheQueue() throws Exception {
+        BertTokenizer tokenizer = tokenizer();
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        InferenceService.Model model = inputs -> {
+            entered.countDown();
+            awaitUninterruptibly(release);
+            return echoIds(inputs);
+        };
+        InferenceService service = new InferenceService(tokenizer, model, 4, 0);
+        CompletableFuture<float[][]> inFlight = service.submit("a cat");
+        assertTrue(entered.await(10, TimeUnit.SECONDS));
+        List<CompletableFuture<float[][]>> queued = new ArrayList<>();
+        queued.add(service.submit("the dog"));
+        queued.add(service.submit("a quick fox"));
+
+        Thread closer = new Thread(service::close);
+        closer.start();
+        // Once close() has begun, submit fails straight away.
+        CompletableFuture<float[][]> probe;
+        while (!(probe = service.submit("dogs")).isDone()) {
+            queued.add(probe);
+            Thread.yield();
+        }
+        assertTrue(probe.isCompletedExceptionally());
+        release.countDown();
+        closer.join(TimeUnit.SECONDS.toMillis(10));
+        assertTrue(!closer.isAlive());
+
+        assertEchoes(tokenizer, "a cat", inFlight.get(10, TimeUnit.SECONDS));
+        for (CompletableFuture<float[][]> future : queued) {
+            ExecutionException failed = assertThrows(ExecutionException.class,
+                    () -> future.get(10, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, failed.getCause());
+        }
+    }
+
+    // Logits [batch, seqLen, 1] holding each input id, so a caller can tell its own row.
+    private static float[][][] echoIds(Map<String, OnnxTensor> inputs) throws OrtException {
+        OnnxTensor ids = inputs.get("input_ids");
+        long[] shape = ids.getInfo().getShape();
+        LongBuffer values = ids.getLongBuffer();
+        float[][][] logits = new float[(int) shape[0]][(int) shape[1]][1];
+        for (int row = 0; row < shape[0]; row++) {
+            for (int col = 0; col < shape[1]; col++) {
+                logits[row][col][0] = values.get();
+            }
+        }
+        return logits;
+    }
+
+    private static void assertEchoes(BertTokenizer tokenizer, String text, float[][] logits) {
+        int[] ids = tokenizer.encodeWithOffsets(text).ids();
+        float[] expected = new float[ids.length + 2];
+        expected[0] = 2;
+        for (int i = 0; i < ids.length; i++) {
+            expected[i + 1] = ids[i];
+        }
+        expected[ids.length + 1] = 3;
+        float[] actual = new float[logits.length];
+        for (int i = 0; i < logits.length; i++) {
+            actual[i] = logits[i][0];
+        }
+        assertArrayEquals(expected, actual, text);
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static BertTokenizer tokenizer() throws IOException {
+        Vocab vocab = Vocab.load(new ByteArrayInputStream(VOCAB.getBytes(StandardCharsets.UTF_8)));
+        return new BertTokenizer(new TokenizerArtifact(vocab), true);
+    }
+}